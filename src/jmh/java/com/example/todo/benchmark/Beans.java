@@ -0,0 +1,37 @@
+package com.example.todo.benchmark;
+
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+// 스프링 컨테이너 없이 빈을 만들기 위한 도우미
+// @Value 필드에 값을 넣고 @PostConstruct 메서드를 직접 호출한다.
+final class Beans {
+
+    private Beans() {
+    }
+
+    // @Value가 붙은 private 필드에 값 설정
+    static <T> T set(T bean, String fieldName, Object value) {
+        Field field = ReflectionUtils.findField(bean.getClass(), fieldName);
+        if (field == null) {
+            throw new IllegalArgumentException(bean.getClass().getSimpleName() + "에 " + fieldName + " 필드가 없습니다.");
+        }
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, bean, value);
+        return bean;
+    }
+
+    // private @PostConstruct 메서드 호출
+    static <T> T init(T bean, String methodName) {
+        Method method = ReflectionUtils.findMethod(bean.getClass(), methodName);
+        if (method == null) {
+            throw new IllegalArgumentException(bean.getClass().getSimpleName() + "에 " + methodName + " 메서드가 없습니다.");
+        }
+        ReflectionUtils.makeAccessible(method);
+        ReflectionUtils.invokeMethod(method, bean);
+        return bean;
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.example.todo.benchmark;
+
+import com.example.todo.auth.TokenProvider;
+import com.example.todo.filter.JwtAuthFilter;
+import com.example.todo.userapi.entity.Role;
+import com.example.todo.userapi.entity.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.servlet.FilterChain;
+import java.util.concurrent.TimeUnit;
+
+// 인증이 필요한 모든 요청이 거치는 토큰 필터의 비용 (헤더 파싱 ~ 인증 정보 등록)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtAuthFilterBenchmark {
+
+    private JwtAuthFilter filter;
+    private String authorization;
+
+    // 필터 뒤의 체인은 인증 정보만 꺼내 본다.
+    private final FilterChain chain = (request, response) ->
+            SecurityContextHolder.getContext().getAuthentication();
+
+    @Setup
+    public void setup() {
+        TokenProvider tokenProvider = TokenProviderBenchmark.newTokenProvider(100_000);
+        filter = new JwtAuthFilter(tokenProvider);
+
+        User user = User.builder()
+                .id("402880e5892f7a6c01892f7b1c2e0000")
+                .email("bench@example.com")
+                .userName("벤치")
+                .role(Role.COMMON)
+                .build();
+        authorization = "Bearer " + tokenProvider.createToken(user);
+    }
+
+    @Benchmark
+    public Authentication doFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/todos");
+        request.addHeader("Authorization", authorization);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.example.todo.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+// BCrypt 비용 (security.bcrypt.strength 값별)
+// 한 번에 수십~수백ms가 걸리므로 반복 횟수를 줄여서 측정한다.
+//   ./gradlew jmh -Pjmh.includes=PasswordEncoder
+// 아래 값은 security.bcrypt.strength 기본값(10) 기준이다. 배포 환경에서 값을 바꿨다면 그 값으로 측정해야
+// 실제 로그인 비용과 맞는다.
+//   ./gradlew jmh -Pjmh.includes=PasswordEncoder -Pbcrypt.strength=12
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class PasswordEncoderBenchmark {
+
+    // 기본 설정값(10)과 그 전후 값 (-Pbcrypt.strength로 덮어쓸 수 있음)
+    @Param({"10", "11", "12"})
+    private int strength;
+
+    private BCryptPasswordEncoder encoder;
+    private String encoded;
+
+    @Setup
+    public void setup() {
+        encoder = new BCryptPasswordEncoder(strength);
+        encoded = encoder.encode("benchmark-password");
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode("benchmark-password");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches("benchmark-password", encoded);
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.example.todo.benchmark;
+
+import com.example.todo.todoapi.dto.response.TodoDetailResponseDTO;
+import com.example.todo.todoapi.dto.response.TodoListResponseDTO;
+import com.example.todo.todoapi.entity.Todo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// 할 일 목록 응답을 만드는 비용 (목록 크기별)
+//   mapToDto  : 엔터티 -> TodoDetailResponseDTO 변환
+//   serialize : TodoListResponseDTO -> JSON
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TodoListResponseBenchmark {
+
+    @Param({"5", "100", "1000"})
+    private int size;
+
+    private List<Todo> entities;
+    private TodoListResponseDTO response;
+
+    // 스프링 부트가 만드는 것과 같은 기본 설정의 ObjectMapper
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Setup
+    public void setup() {
+        entities = new ArrayList<>(size);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < size; i++) {
+            entities.add(Todo.builder()
+                    .todoId(UUID.randomUUID().toString().replace("-", ""))
+                    .title("할 일 " + i)
+                    .done(i % 3 == 0)
+                    .createDate(now.plusSeconds(i))
+                    .build());
+        }
+        response = TodoListResponseDTO.builder()
+                .todos(mapToDto())
+                .build();
+    }
+
+    @Benchmark
+    public List<TodoDetailResponseDTO> mapToDto() {
+        return entities.stream()
+                .map(TodoDetailResponseDTO::new)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+}
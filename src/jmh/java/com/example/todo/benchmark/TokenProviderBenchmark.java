@@ -0,0 +1,73 @@
+package com.example.todo.benchmark;
+
+import com.example.todo.auth.TokenProvider;
+import com.example.todo.auth.TokenRevocationList;
+import com.example.todo.auth.TokenUserInfo;
+import com.example.todo.userapi.entity.Role;
+import com.example.todo.userapi.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// 토큰 발급, 검사 비용
+//   createToken     : 로그인/재발급 시 서명 비용
+//   verifyCached    : 같은 토큰이 다시 올 때 (검사 결과 캐시 적중)
+//   verifyUncached  : 처음 보는 토큰 (서명 검사 + 파싱, 캐시를 끈 provider로 매번 검사)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TokenProviderBenchmark {
+
+    // 512비트 이상의 테스트용 서명 키
+    static final String SECRET_KEY =
+            "benchmark-secret-key-benchmark-secret-key-benchmark-secret-key-benchmark-secret-key";
+
+    private TokenProvider cachingProvider;
+    private TokenProvider nonCachingProvider;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setup() {
+        cachingProvider = newTokenProvider(100_000);
+        nonCachingProvider = newTokenProvider(0); // 0 이하면 캐시를 만들지 않는다.
+
+        user = User.builder()
+                .id("402880e5892f7a6c01892f7b1c2e0000")
+                .email("bench@example.com")
+                .userName("벤치")
+                .role(Role.COMMON)
+                .build();
+        token = cachingProvider.createToken(user);
+        cachingProvider.validateAndGetTokenUserInfo(token); // 캐시에 넣어 둔다.
+    }
+
+    // 스프링 설정 없이 TokenProvider를 만든다. (폐기 목록은 비어 있음)
+    static TokenProvider newTokenProvider(long verifiedCacheMaxSize) {
+        TokenRevocationList revocationList = new TokenRevocationList(null, null);
+        TokenProvider provider = new TokenProvider(new SimpleMeterRegistry(), revocationList);
+        Beans.set(provider, "SECRET_KEY", SECRET_KEY);
+        Beans.set(provider, "verifiedCacheMaxSize", verifiedCacheMaxSize);
+        Beans.set(provider, "accessTokenTtl", Duration.ofMinutes(15));
+        Beans.set(provider, "refreshTokenTtl", Duration.ofDays(14));
+        return Beans.init(provider, "initialize");
+    }
+
+    @Benchmark
+    public String createToken() {
+        return cachingProvider.createToken(user);
+    }
+
+    @Benchmark
+    public TokenUserInfo verifyCached() {
+        return cachingProvider.validateAndGetTokenUserInfo(token);
+    }
+
+    @Benchmark
+    public TokenUserInfo verifyUncached() {
+        return nonCachingProvider.validateAndGetTokenUserInfo(token);
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.example.todo.auth;
+
+import com.example.todo.exception.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// 로그인 시도 횟수 제한
+// 이메일별, 클라이언트 IP별로 토큰 버킷을 두고, 토큰이 없으면 DB 조회나 비밀번호 검사 전에 거절한다.
+// 버킷은 최대 개수와 유휴 만료 시간이 있는 캐시에 보관해 메모리 사용량이 제한된다.
+@Component
+@Slf4j
+public class LoginRateLimiter {
+   
+   // 이메일 하나당: 최대 몇 번 연속 시도할 수 있는지 / 분당 몇 번씩 회복되는지
+   @Value("${security.login-limit.email.capacity:5}")
+   private long emailCapacity;
+   @Value("${security.login-limit.email.refill-per-minute:5}")
+   private double emailRefillPerMinute;
+   
+   // IP 하나당 (여러 사람이 같은 IP를 쓸 수 있으므로 이메일보다 넉넉하게)
+   @Value("${security.login-limit.ip.capacity:30}")
+   private long ipCapacity;
+   @Value("${security.login-limit.ip.refill-per-minute:30}")
+   private double ipRefillPerMinute;
+   
+   // 이 시간 동안 시도가 없으면 버킷을 지운다. (지워지면 가득 찬 버킷으로 다시 시작)
+   @Value("${security.login-limit.idle-expire:10m}")
+   private Duration idleExpire;
+   
+   // 종류별로 보관할 최대 버킷 수
+   @Value("${security.login-limit.max-keys:100000}")
+   private long maxKeys;
+   
+   private Cache<String, TokenBucket> emailBuckets;
+   private Cache<String, TokenBucket> ipBuckets;
+   
+   @PostConstruct
+   private void initialize(){
+      this.emailBuckets = newBucketCache();
+      this.ipBuckets = newBucketCache();
+   }
+   
+   private Cache<String, TokenBucket> newBucketCache(){
+      return Caffeine.newBuilder()
+         .maximumSize(maxKeys)
+         .expireAfterAccess(idleExpire)
+         .build();
+   }
+   
+   /**
+    * 로그인 시도 한 번을 허용할지 검사
+    * @param email - 로그인 시도한 이메일
+    * @param remoteAddr - 클라이언트 IP
+    * @throws TooManyRequestsException - 이메일 또는 IP의 시도 횟수를 넘은 경우
+    */
+   public void acquire(String email, String remoteAddr) throws TooManyRequestsException {
+      long now = System.nanoTime();
+      
+      long waitNanos = ipBuckets
+         .get(remoteAddr, k -> new TokenBucket(ipCapacity, ipRefillPerMinute / 60, now))
+         .tryConsume(now);
+      
+      if(waitNanos == 0 && email != null){
+         waitNanos = emailBuckets
+            .get(email.toLowerCase(Locale.ROOT),
+                 k -> new TokenBucket(emailCapacity, emailRefillPerMinute / 60, now))
+            .tryConsume(now);
+      }
+      
+      if(waitNanos > 0){
+         log.warn("로그인 시도 횟수 초과 - ip: {}", remoteAddr);
+         throw new TooManyRequestsException(
+            "로그인 시도가 너무 많습니다. 잠시 후 다시 시도해주세요.",
+            TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+      }
+   }
+   
+}
@@ -0,0 +1,45 @@
+package com.example.todo.auth;
+
+// 토큰 버킷: capacity 개까지 모아둘 수 있고, 초당 refillPerSecond 개씩 다시 채워진다.
+// 요청 한 번에 토큰 하나를 쓰고, 토큰이 없으면 거절한다.
+// 버킷마다 따로 잠그므로 서로 다른 키의 요청은 서로를 기다리지 않는다.
+public class TokenBucket {
+   
+   private static final long NANOS_PER_SECOND = 1_000_000_000L;
+   
+   private final double capacity;
+   private final double refillPerNano;
+   
+   private double tokens;
+   private long lastRefillNanos;
+   
+   public TokenBucket(long capacity, double refillPerSecond, long nowNanos) {
+      this.capacity = capacity;
+      this.refillPerNano = refillPerSecond / NANOS_PER_SECOND;
+      this.tokens = capacity;
+      this.lastRefillNanos = nowNanos;
+   }
+   
+   /**
+    * 토큰 하나를 사용
+    * @param nowNanos - 현재 시간 (System.nanoTime())
+    * @return - 사용했으면 0, 토큰이 없으면 다음 토큰이 생길 때까지 기다려야 할 시간 (나노초)
+    */
+   public synchronized long tryConsume(long nowNanos) {
+      refill(nowNanos);
+      if (tokens >= 1) {
+         tokens -= 1;
+         return 0;
+      }
+      return (long) Math.ceil((1 - tokens) / refillPerNano);
+   }
+   
+   private void refill(long nowNanos) {
+      long elapsed = nowNanos - lastRefillNanos;
+      if (elapsed > 0) {
+         tokens = Math.min(capacity, tokens + elapsed * refillPerNano);
+         lastRefillNanos = nowNanos;
+      }
+   }
+   
+}
@@ -2,23 +2,41 @@ package com.example.todo.auth;
 
 import com.example.todo.userapi.entity.Role;
 import com.example.todo.userapi.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.UUID;
 
 @Component
 @Slf4j
+@RequiredArgsConstructor
 // 역할: 토큰을 발급하고, 서명 위조를 검사하는 객체
 public class TokenProvider {
 
@@ -26,6 +44,66 @@ public class TokenProvider {
    @Value("${jwt.secret}")
    private String SECRET_KEY;
    
+   // 검사를 마친 토큰을 기억해 둘 최대 개수 (0 이하면 캐시를 쓰지 않고 매번 서명을 검사한다)
+   @Value("${jwt.verified-cache.max-size:100000}")
+   private long verifiedCacheMaxSize;
+   
+   // 액세스 토큰 수명: 짧게 두고 만료되면 리프레시 토큰으로 재발급한다.
+   // 권한이 바뀌어도 늦어도 이 시간 안에는 새 권한이 담긴 토큰으로 바뀐다.
+   @Value("${jwt.access-token.ttl:15m}")
+   private Duration accessTokenTtl;
+   
+   // 리프레시 토큰 수명
+   @Value("${jwt.refresh-token.ttl:14d}")
+   private Duration refreshTokenTtl;
+   
+   // 리프레시 토큰을 구분하는 클레임 값 (액세스 토큰 대신 쓸 수 없도록)
+   private static final String TOKEN_TYPE_CLAIM = "type";
+   private static final String REFRESH_TOKEN_TYPE = "refresh";
+   
+   private final MeterRegistry meterRegistry;
+   private final TokenRevocationList tokenRevocationList;
+   
+   // 서명 키와 파서는 한 번만 만들어서 재사용한다. (둘 다 스레드에 안전함)
+   private SecretKey signingKey;
+   private JwtParser parser;
+   
+   // 검사를 마친 토큰 캐시 (key: 토큰의 SHA-256 해시, 토큰 만료 시간에 제거), 캐시를 끄면 null
+   private Cache<String, VerifiedToken> verifiedTokens;
+   
+   @PostConstruct
+   private void initialize(){
+      this.signingKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+      this.parser = Jwts.parserBuilder()
+         //토큰 발급자의 발급 당시의 서명을 넣어줌
+         .setSigningKey(signingKey)
+         .build();
+      
+      // maximumSize(0)은 방금 넣은 값을 비동기로 지우기 때문에 잠시 캐시가 적중할 수 있다.
+      // 확실히 끄려면 캐시를 아예 만들지 않는다.
+      if(verifiedCacheMaxSize <= 0) return;
+      
+      this.verifiedTokens = Caffeine.newBuilder()
+         .maximumSize(verifiedCacheMaxSize)
+         .expireAfter(new Expiry<String, VerifiedToken>() {
+            @Override
+            public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+               return Math.max(0, Duration.between(Instant.now(), value.getExpiresAt()).toNanos());
+            }
+            @Override
+            public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+               return currentDuration;
+            }
+            @Override
+            public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+               return currentDuration;
+            }
+         })
+         .recordStats()
+         .build();
+      CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "verifiedToken");
+   }
+   
    /**
     * JSON Web Token을 생성하는 메서드
     * @param userEntity - 토큰의 내용(클레임)에 포함될 유저 정보
@@ -36,7 +114,7 @@ public class TokenProvider {
       
       //토큰 만료시간 생성
       Date expiry = Date.from(
-             Instant.now().plus(1, ChronoUnit.DAYS) //하루
+             Instant.now().plus(accessTokenTtl) //기본 15분
       );
       
       
@@ -62,7 +140,7 @@ public class TokenProvider {
       return Jwts.builder()
          //token header에 들어갈 서명
          .signWith(
-                     Keys.hmacShaKeyFor(SECRET_KEY.getBytes()),
+                     signingKey,
                      SignatureAlgorithm.HS512
                   )
          //token payload에 들어갈 클레임 설정.
@@ -71,9 +149,48 @@ public class TokenProvider {
          .setIssuedAt(new Date())   //iat: 발급시간
          .setExpiration(expiry)     //exp: 만료시간
          .setSubject(userEntity.getId()) //sub: 토큰을 식별할 수 있는 주요 데이터
+         .setId(UUID.randomUUID().toString()) //jti: 토큰 폐기 시 사용할 토큰 고유 ID
+         .compact();
+   }
+   
+   /**
+    * 액세스 토큰 재발급에 사용할 리프레시 토큰을 생성
+    * 회원 ID만 담고, 재발급할 때 회원 정보를 다시 조회해서 바뀐 권한을 반영한다.
+    * @param userEntity - 토큰을 발급받을 회원
+    * @return - 리프레시 토큰
+    */
+   public String createRefreshToken(User userEntity){
+      return Jwts.builder()
+         .signWith(signingKey, SignatureAlgorithm.HS512)
+         .claim(TOKEN_TYPE_CLAIM, REFRESH_TOKEN_TYPE)
+         .setIssuer("콩")
+         .setIssuedAt(new Date())
+         .setExpiration(Date.from(Instant.now().plus(refreshTokenTtl)))
+         .setSubject(userEntity.getId())
+         .setId(UUID.randomUUID().toString())
          .compact();
    }
    
+   /**
+    * 리프레시 토큰의 위조, 만료 여부를 검사
+    * 폐기 여부는 사용하는 쪽에서 TokenRevocationList.revokeRefreshToken으로 확인한다.
+    * @param refreshToken - 클라이언트가 전송한 리프레시 토큰
+    * @return - 회원 ID, 토큰 ID, 만료 시간만 담긴 정보
+    * @throws JwtException - 위조, 만료된 토큰이거나 리프레시 토큰이 아닌 경우
+    */
+   public TokenUserInfo verifyRefreshToken(String refreshToken) throws JwtException {
+      Claims claims = parser.parseClaimsJws(refreshToken).getBody();
+      if(!REFRESH_TOKEN_TYPE.equals(claims.get(TOKEN_TYPE_CLAIM, String.class))){
+         throw new JwtException("리프레시 토큰이 아닙니다.");
+      }
+      
+      return TokenUserInfo.builder()
+         .userId(claims.getSubject())
+         .tokenId(claims.getId())
+         .expiresAt(claims.getExpiration().toInstant())
+         .build();
+   }
+   
    /**
     * 클라이언트가 전송한 토큰을 디코딩하여 토큰의 위조여부를 확인
     * 토큰을 json으로 피싱해서 클레임(토큰 정보)를 리턴
@@ -81,23 +198,72 @@ public class TokenProvider {
     * @return - 토큰 안에 있는 인증된 유저 정보를 반환
     */
    public TokenUserInfo validateAndGetTokenUserInfo(String token){
+      return verify(token).getUserInfo();
+   }
+   
+   /**
+    * 토큰의 서명 위조 여부를 검사하고, 유저 정보와 인가 정보를 리턴
+    * 이미 검사한 토큰이면 서명 검사와 파싱 없이 캐시된 결과를 리턴한다.
+    * 폐기 여부는 캐시와 상관없이 매번 메모리의 폐기 목록으로 확인한다.
+    * @param token - 클라이언트가 전송한 토큰
+    * @return - 검사를 마친 토큰 정보
+    * @throws JwtException - 위조, 만료, 폐기된 토큰인 경우
+    */
+   public VerifiedToken verify(String token) throws JwtException {
+      VerifiedToken verified;
+      if(verifiedTokens == null){
+         verified = parse(token);
+      } else {
+         String key = digest(token);
+         verified = verifiedTokens.getIfPresent(key);
+         if(verified == null){
+            verified = parse(token);
+            verifiedTokens.put(key, verified);
+         }
+      }
       
-      Claims claims = Jwts.parserBuilder()
-         //토큰 발급자의 발급 당시의 서명을 넣어줌
-         .setSigningKey(Keys.hmacShaKeyFor(SECRET_KEY.getBytes()))
+      if(tokenRevocationList.isRevoked(verified.getUserInfo().getTokenId())){
+         throw new JwtException("폐기된 토큰입니다.");
+      }
+      return verified;
+   }
+   
+   private VerifiedToken parse(String token){
+      
+      Claims claims = parser
          // 서명 위조 검사: 위조된 경우에는 예외가 발생한다.
          // 위조가 되지 않은 경우 (정보가 담겨 있는) 페이로드를 리턴한다.
-         .build()
          .parseClaimsJws(token)
          .getBody();
       
-      log.info("claims: {}", claims); //위에서 넣은 토큰 값이 그대로 들어있음.
+      if(REFRESH_TOKEN_TYPE.equals(claims.get(TOKEN_TYPE_CLAIM, String.class))){
+         throw new JwtException("리프레시 토큰으로는 인증할 수 없습니다.");
+      }
       
-      return TokenUserInfo.builder()
+      TokenUserInfo userInfo = TokenUserInfo.builder()
          .userId(claims.getSubject())
          .email(claims.get("email", String.class))
          .role(Role.valueOf(claims.get("role", String.class)))
+         .tokenId(claims.getId())
+         .expiresAt(claims.getExpiration().toInstant())
          .build();
+      
+      return new VerifiedToken(
+         userInfo,
+         List.of(new SimpleGrantedAuthority("ROLE_" + userInfo.getRole().toString())),
+         claims.getExpiration().toInstant()
+      );
+   }
+   
+   // 토큰 원문 대신 해시값을 캐시 키로 사용한다. (메모리에 토큰을 그대로 두지 않기 위해)
+   private String digest(String token){
+      try {
+         byte[] hash = MessageDigest.getInstance("SHA-256")
+            .digest(token.getBytes(StandardCharsets.US_ASCII));
+         return Base64.getEncoder().encodeToString(hash);
+      } catch (NoSuchAlgorithmException e) {
+         throw new IllegalStateException(e); // 모든 JVM이 SHA-256을 지원하므로 발생하지 않음
+      }
    }
    
 }
@@ -0,0 +1,112 @@
+package com.example.todo.auth;
+
+import com.example.todo.userapi.entity.RevokedToken;
+import com.example.todo.userapi.repository.RevokedRefreshTokenRepository;
+import com.example.todo.userapi.repository.RevokedTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 폐기된 액세스 토큰 목록 (key: 토큰 jti, value: 토큰 만료 시간)
+// 요청마다 DB를 조회하지 않도록 메모리에 두고, 다른 서버에서 폐기한 토큰은 주기적으로 새로 추가된 것만 읽어온다.
+// 액세스 토큰은 수명이 짧고 만료된 항목은 바로 지우므로 목록은 작게 유지된다.
+// 리프레시 토큰은 수명이 길고 재발급마다 하나씩 폐기되므로 메모리에 두지 않고,
+// 드물게 오는 재발급/로그아웃 요청 때 DB에서만 확인한다.
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class TokenRevocationList {
+   
+   private final RevokedTokenRepository revokedTokenRepository;
+   private final RevokedRefreshTokenRepository revokedRefreshTokenRepository;
+   
+   // 다시 읽을 때 이 시간만큼 겹쳐서 읽는다. (늦게 커밋된 폐기 기록을 놓치지 않기 위해)
+   @Value("${jwt.revocation.reload-overlap:1m}")
+   private Duration reloadOverlap;
+   
+   private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+   
+   // 마지막으로 DB를 읽은 시간 (null이면 아직 한 번도 읽지 않음)
+   private volatile LocalDateTime lastReload;
+   
+   /**
+    * 폐기된 토큰인지 확인 (DB 조회 없음)
+    * @param tokenId - 토큰의 jti
+    * @return - 폐기되었으면 true
+    */
+   public boolean isRevoked(String tokenId){
+      return tokenId != null && revoked.containsKey(tokenId);
+   }
+   
+   /**
+    * 액세스 토큰을 폐기한다. 이 서버에는 바로 반영되고, 다른 서버에는 다음 읽기 때 반영된다.
+    * @param tokenId - 토큰의 jti
+    * @param expiresAt - 토큰 만료 시간 (이미 지났으면 기록하지 않음)
+    */
+   public void revoke(String tokenId, Instant expiresAt){
+      if(tokenId == null || expiresAt == null || expiresAt.isBefore(Instant.now())) return;
+      
+      revoked.put(tokenId, expiresAt);
+      revokedTokenRepository.save(RevokedToken.builder()
+         .tokenId(tokenId)
+         .expiresAt(LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()))
+         .build());
+   }
+   
+   /**
+    * 리프레시 토큰을 폐기한다. (DB에만 기록)
+    * 기본키가 중복되면 INSERT가 실패하므로, 같은 토큰으로 동시에 재발급해도 한 요청만 성공한다.
+    * @param tokenId - 토큰의 jti
+    * @param expiresAt - 토큰 만료 시간
+    * @return - 이번에 폐기했으면 true, 이미 사용했거나 폐기된 토큰이면 false
+    */
+   public boolean revokeRefreshToken(String tokenId, Instant expiresAt){
+      if(tokenId == null || expiresAt == null) return false;
+      try {
+         revokedRefreshTokenRepository.insert(tokenId,
+            LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()));
+         return true;
+      } catch (DataIntegrityViolationException e) {
+         return false;
+      }
+   }
+   
+   // 새로 폐기된 토큰을 읽어오고, 만료된 항목은 메모리에서 지운다. (기본 10초마다, 단위: ms)
+   @Scheduled(fixedDelayString = "${jwt.revocation.reload-interval:10000}")
+   public void reload(){
+      LocalDateTime now = LocalDateTime.now();
+      List<RevokedToken> loaded = (lastReload == null)
+         ? revokedTokenRepository.findByExpiresAtAfter(now)
+         : revokedTokenRepository.findByRevokedAtGreaterThanEqual(lastReload.minus(reloadOverlap));
+      
+      for (RevokedToken token : loaded) {
+         revoked.put(token.getTokenId(), token.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant());
+      }
+      lastReload = now;
+      
+      Instant instant = Instant.now();
+      revoked.values().removeIf(expiresAt -> expiresAt.isBefore(instant));
+      log.debug("폐기 토큰 목록 갱신 - 읽음: {}, 보관 중: {}", loaded.size(), revoked.size());
+   }
+   
+   // 만료된 폐기 기록을 DB에서 정리한다. (기본 1시간마다, 단위: ms)
+   @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval:3600000}")
+   public void purgeExpired(){
+      LocalDateTime now = LocalDateTime.now();
+      int deleted = revokedTokenRepository.deleteExpired(now);
+      int deletedRefresh = revokedRefreshTokenRepository.deleteExpired(now);
+      log.debug("만료된 폐기 토큰 기록 정리 - 액세스: {}건, 리프레시: {}건", deleted, deletedRefresh);
+   }
+   
+}
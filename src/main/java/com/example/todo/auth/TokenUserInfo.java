@@ -3,6 +3,8 @@ package com.example.todo.auth;
 import com.example.todo.userapi.entity.Role;
 import lombok.*;
 
+import java.time.Instant;
+
 @Getter
 @ToString @EqualsAndHashCode
 @NoArgsConstructor @AllArgsConstructor
@@ -13,5 +15,8 @@ public class TokenUserInfo {
    private String email;
    private Role role;
    
+   private String tokenId;    // 토큰 고유 ID (jti), 로그아웃 시 폐기할 대상
+   private Instant expiresAt; // 토큰 만료 시간
+   
    
 }
@@ -0,0 +1,26 @@
+package com.example.todo.auth;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+
+// 서명 검사를 통과한 토큰의 내용
+// 같은 토큰이 다시 들어오면 서명 검사와 파싱을 다시 하지 않고 이 객체를 그대로 사용한다.
+@Getter
+@ToString
+@AllArgsConstructor
+public class VerifiedToken {
+   
+   private final TokenUserInfo userInfo;
+   
+   // 스프링 시큐리티에 넘겨줄 인가 정보 (ROLE_권한)
+   private final List<GrantedAuthority> authorities;
+   
+   // 토큰 만료 시간 (캐시에서도 이 시간에 제거된다)
+   private final Instant expiresAt;
+   
+}
@@ -1,21 +1,41 @@
 package com.example.todo.aws;
 
+import com.example.todo.storage.ObjectStore;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
-import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Utilities;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
+// S3 버킷을 저장소로 사용하는 구현 (storage.type=s3, 기본값)
+// 비동기 클라이언트를 사용하므로 전송하는 동안 요청 스레드나 작업 스레드를 붙잡지 않는다.
 @Component
-public class S3Service {
+@ConditionalOnProperty(name = "storage.type", havingValue = "s3", matchIfMissing = true)
+public class S3Service implements ObjectStore {
    
    // s3 버킷을 제어하는 객체
-   private S3Client s3;
+   private S3AsyncClient s3;
+   
+   // 버킷 url을 만드는 객체 (네트워크 요청 없음)
+   private S3Utilities utilities;
    
    @Value("${aws.credentials.accessKey}")
    private String accessKey;
@@ -29,6 +49,28 @@ public class S3Service {
    @Value("${aws.bucketName}")
    private String bucketName;
    
+   // 동시에 열어둘 수 있는 최대 연결 수
+   @Value("${aws.s3.max-concurrency:64}")
+   private int maxConcurrency;
+   
+   // 연결을 맺을 때까지 기다리는 시간
+   @Value("${aws.s3.connection-timeout:2s}")
+   private Duration connectionTimeout;
+   
+   // 연결이 모두 사용 중일 때 빈 연결을 기다리는 시간
+   @Value("${aws.s3.connection-acquisition-timeout:5s}")
+   private Duration connectionAcquisitionTimeout;
+   
+   // 데이터를 주고받는 중 응답이 없을 때 기다리는 시간
+   @Value("${aws.s3.read-timeout:30s}")
+   private Duration readTimeout;
+   @Value("${aws.s3.write-timeout:30s}")
+   private Duration writeTimeout;
+   
+   // 재시도를 포함한 요청 하나의 전체 제한 시간
+   @Value("${aws.s3.api-call-timeout:60s}")
+   private Duration apiCallTimeout;
+   
    
    // S3에 연결해서 인증을 처리(연결)하는 로직
    @PostConstruct // S3Service가 생성될 때 1번만 실행되는 아노테이션
@@ -37,40 +79,102 @@ public class S3Service {
       AwsBasicCredentials credentials
          = AwsBasicCredentials.create(accessKey, secretKey); //인증정보가 리턴됨.
       
-      this.s3 = S3Client.builder()
+      this.s3 = S3AsyncClient.builder()
                .region(Region.of(region))
                .credentialsProvider(StaticCredentialsProvider.create(credentials))
+               .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                  .maxConcurrency(maxConcurrency)
+                  .connectionTimeout(connectionTimeout)
+                  .connectionAcquisitionTimeout(connectionAcquisitionTimeout)
+                  .readTimeout(readTimeout)
+                  .writeTimeout(writeTimeout))
+               .overrideConfiguration(ClientOverrideConfiguration.builder()
+                  .apiCallTimeout(apiCallTimeout)
+                  .build())
                .build();
+      
+      this.utilities = S3Utilities.builder()
+               .region(Region.of(region))
+               .build();
+   }
+   
+   @PreDestroy
+   private void close(){
+      s3.close();
    }
    
    
    /**
-    * 버킷에 파일을 업로드하고, 업로드한 버킷의 url 정보를 리턴
-    * @param uploadFile  - 업로드할 파일의 실제 raw 데이터
-    * @param fileName  - 업로드 할 파일명
-    * @return  - 버킷에 업로드 된 버킷 경로(url)
+    * 버킷에 파일을 업로드
+    * 파일 전체를 메모리에 올리지 않고 읽으면서 바로 전송한다.
+    * @param key  - 업로드 할 파일명
+    * @param source  - 업로드할 파일
+    * @param contentType  - 파일의 컨텐츠 타입
+    * @return  - 업로드가 끝나면 완료되는 future
     */
-   public String uploadToS3Bucket(byte[] uploadFile, String fileName){
+   @Override
+   public CompletableFuture<Void> put(String key, Path source, String contentType){
    
       // 업로드할 파일을 S3 객체로 생성
       PutObjectRequest request
                   = PutObjectRequest.builder()
                   .bucket(bucketName)  // 버킷이름
-                  .key(fileName)  // 파일명
+                  .key(key)  // 파일명
+                  .contentType(contentType)
                   .build();
       
-      // 오브젝트를 버킷에 업로드 (리퀘스트, 실제 파일()RequestBody를 위해서)
-      s3.putObject(request, RequestBody.fromBytes(uploadFile));
+      // 오브젝트를 버킷에 업로드
+      return s3.putObject(request, AsyncRequestBody.fromFile(source))
+               .thenApply(response -> null);
+   }
+   
+   
+   /**
+    * 버킷의 파일을 로컬 파일로 받는다. (받으면서 바로 파일에 쓰므로 메모리에 올리지 않음)
+    * @param key - 받을 파일명
+    * @param target - 받은 내용을 쓸 파일 (아직 없는 경로여야 함)
+    * @return - 받았으면 true, 버킷에 파일이 없으면 false
+    */
+   @Override
+   public CompletableFuture<Boolean> download(String key, Path target){
+      GetObjectRequest request = GetObjectRequest.builder()
+                  .bucket(bucketName)
+                  .key(key)
+                  .build();
       
-      // 업로드 된 파일을 url으로 반환
-      return s3.utilities()
-               .getUrl(b -> b.bucket(bucketName).key(fileName))
+      return s3.getObject(request, AsyncResponseTransformer.toFile(target))
+               .thenApply(response -> true)
+               .exceptionally(e -> {
+                  Throwable cause = (e instanceof CompletionException) ? e.getCause() : e;
+                  if (cause instanceof NoSuchKeyException) {
+                     return false;
+                  }
+                  throw (e instanceof CompletionException) ? (CompletionException) e : new CompletionException(e);
+               });
+   }
+   
+   
+   /**
+    * 버킷에서 파일을 삭제
+    * @param key - 삭제할 파일명
+    */
+   @Override
+   public CompletableFuture<Void> delete(String key){
+      return s3.deleteObject(DeleteObjectRequest.builder()
+                  .bucket(bucketName)
+                  .key(key)
+                  .build())
+               .thenApply(response -> null);
+   }
+   
+   
+   // 업로드 된 파일의 버킷 url
+   @Override
+   public String url(String key){
+      return utilities
+               .getUrl(b -> b.bucket(bucketName).key(key))
                .toString()
                ;
    }
 
-
-
-
-
 }
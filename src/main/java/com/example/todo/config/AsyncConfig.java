@@ -0,0 +1,18 @@
+package com.example.todo.config;
+
+import com.example.todo.filter.DbTimeCallableInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// 비동기 응답(StreamingResponseBody 등) 설정
+@Configuration
+public class AsyncConfig implements WebMvcConfigurer {
+   
+   // 본문을 쓰는 작업 스레드의 SQL 시간도 접근 로그에 모이도록 연결
+   @Override
+   public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+      configurer.registerCallableInterceptors(new DbTimeCallableInterceptor());
+   }
+   
+}
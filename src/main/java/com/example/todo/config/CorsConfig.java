@@ -15,6 +15,7 @@ public class CorsConfig implements WebMvcConfigurer {
          .allowedOrigins("http://localhost:3000") // 어떤 클라이언를 허용할지
          .allowedMethods("*")                     //어떤 요청방식을 허용할지. (* => 전부)
          .allowedHeaders("*")                     //어떤 요청 헤더를 허용할지
+         .exposedHeaders("ETag", "Todo-List-Version", "Retry-After") //클라이언트 스크립트가 읽을 수 있는 응답 헤더
          .allowCredentials(true)                  //쿠키 전달을 허용할 것인지.
          .maxAge(3600)                            //캐싱 시간을 설정 (초 단위. 3600초. = 1시간)
          ;
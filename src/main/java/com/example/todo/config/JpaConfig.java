@@ -0,0 +1,29 @@
+package com.example.todo.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// JPA(하이버네이트) 추가 설정
+@Configuration
+public class JpaConfig {
+   
+   // 한 번에 묶어서 보낼 SQL 개수
+   @Value("${todo.jpa.batch-size:50}")
+   private int batchSize;
+   
+   // INSERT/UPDATE/DELETE를 JDBC 배치로 묶어서 전송하도록 설정
+   // (설정 파일에 직접 지정한 값이 있다면 그 값을 우선한다.)
+   // MySQL은 jdbc url에 rewriteBatchedStatements=true를 줘야 실제로 한 번에 전송된다.
+   @Bean
+   public HibernatePropertiesCustomizer jdbcBatchCustomizer(){
+      return properties -> {
+         properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, batchSize);
+         properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, true);
+         properties.putIfAbsent(AvailableSettings.ORDER_UPDATES, true);
+      };
+   }
+   
+}
@@ -2,6 +2,7 @@ package com.example.todo.config;
 
 import com.example.todo.filter.JwtAuthFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
@@ -24,9 +25,14 @@ public class WebSecurityConfig {
 
     private final JwtAuthFilter jwtAuthFilter;
     
+    // BCrypt 강도 (2^strength 번 반복, 1 올릴 때마다 암호화 시간이 2배)
+    // 값을 올리면 기존 회원의 비밀번호는 다음 로그인 때 새 강도로 다시 암호화된다.
+    @Value("${security.bcrypt.strength:10}")
+    private int bcryptStrength;
+    
     @Bean   //비밀번호 암호화 설정
     public PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean   //시큐리티 설정
@@ -45,6 +51,7 @@ public class WebSecurityConfig {
            .authorizeRequests()
            .antMatchers(HttpMethod.PUT, "/api/auth/promote").authenticated()
            .antMatchers("/api/auth/load-profile").authenticated()
+           .antMatchers(HttpMethod.POST, "/api/auth/logout").authenticated()
            .antMatchers("/", "/api/auth/**").permitAll()
 //           .antMatchers(HttpMethod.POST, "/api/todos").gasRole("ADMIN")
             // => ADMIN 권한을 가진 사람만 통과시키겠다
@@ -0,0 +1,11 @@
+package com.example.todo.exception;
+
+// 비밀번호 암호화 작업이 밀려 있어 요청을 받을 수 없을 때 발생 (429 응답)
+public class PasswordHashingBusyException extends TooManyRequestsException{
+   
+   public PasswordHashingBusyException(String message, long retryAfterSeconds) {
+      super(message, retryAfterSeconds);
+   }
+   
+   
+}
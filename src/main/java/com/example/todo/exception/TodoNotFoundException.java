@@ -0,0 +1,14 @@
+package com.example.todo.exception;
+
+import lombok.NoArgsConstructor;
+
+// 요청한 할 일이 없거나 본인의 할 일이 아닐 때 발생
+@NoArgsConstructor
+public class TodoNotFoundException extends RuntimeException{
+   
+   public TodoNotFoundException(String message) {
+      super(message);
+   }
+   
+   
+}
@@ -0,0 +1,18 @@
+package com.example.todo.exception;
+
+import lombok.Getter;
+
+// 요청이 너무 많아 거절할 때 발생 (429 응답 + Retry-After 헤더)
+@Getter
+public class TooManyRequestsException extends RuntimeException{
+   
+   // 클라이언트에게 알려줄 재시도 대기 시간 (초)
+   private final long retryAfterSeconds;
+   
+   public TooManyRequestsException(String message, long retryAfterSeconds) {
+      super(message);
+      this.retryAfterSeconds = retryAfterSeconds;
+   }
+   
+   
+}
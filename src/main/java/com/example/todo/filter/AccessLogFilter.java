@@ -0,0 +1,110 @@
+package com.example.todo.filter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+//요청 하나당 한 줄의 접근 로그를 남기는 필터
+// route, 회원 ID, 상태 코드, 처리 시간, DB 시간을 key=value 형태로 남긴다.
+// ACCESS_LOG 로거는 logback-spring.xml에서 비동기 어펜더로 연결되어 요청 스레드를 막지 않는다.
+//   access-log.sample-rate: 남길 비율 (0.0 ~ 1.0)
+//   access-log.slow-threshold: 이 시간보다 오래 걸린 요청과 5xx 응답은 비율과 상관없이 항상 남긴다.
+// 비동기 응답(/export의 StreamingResponseBody 등)은 첫 디스패치가 끝날 때가 아니라
+// 본문까지 다 쓰고 완료될 때 남기므로 상태 코드, 처리 시간, DB 시간에 본문을 쓰는 동안의 값이 포함된다.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE) // 시큐리티 필터보다 먼저 실행해서 401/403 응답도 기록
+public class AccessLogFilter extends OncePerRequestFilter {
+   
+   // 인증 필터가 인증된 회원 ID를 담아두는 요청 속성 이름
+   public static final String USER_ID_ATTRIBUTE = AccessLogFilter.class.getName() + ".userId";
+   
+   // 요청의 DB 시간 누적값(LongAdder)을 담아두는 요청 속성 이름 (비동기 작업 스레드에서 사용)
+   public static final String DB_TIME_ATTRIBUTE = AccessLogFilter.class.getName() + ".dbTime";
+   
+   private static final Logger accessLog = LoggerFactory.getLogger("ACCESS_LOG");
+   
+   @Value("${access-log.sample-rate:1.0}")
+   private double sampleRate;
+   
+   @Value("${access-log.slow-threshold:1s}")
+   private Duration slowThreshold;
+   
+   @Override
+   protected void doFilterInternal(HttpServletRequest request,
+                                   HttpServletResponse response,
+                                   FilterChain filterChain) throws ServletException, IOException {
+      
+      long start = System.nanoTime();
+      LongAdder dbNanos = new LongAdder();
+      request.setAttribute(DB_TIME_ATTRIBUTE, dbNanos);
+      DbTimeListener.bind(dbNanos);
+      
+      try {
+         filterChain.doFilter(request, response);
+      } finally {
+         DbTimeListener.unbind();
+         
+         if(request.isAsyncStarted()){
+            // 본문은 다른 스레드에서 쓰이므로 비동기 처리가 완료될 때 남긴다.
+            request.getAsyncContext().addListener(new AsyncListener() {
+               @Override
+               public void onComplete(AsyncEvent event) {
+                  log(request, (HttpServletResponse) event.getSuppliedResponse(), start, dbNanos);
+               }
+               @Override
+               public void onTimeout(AsyncEvent event) { }
+               @Override
+               public void onError(AsyncEvent event) { }
+               @Override
+               public void onStartAsync(AsyncEvent event) { }
+            });
+         } else {
+            log(request, response, start, dbNanos);
+         }
+      }
+   }
+   
+   private void log(HttpServletRequest request, HttpServletResponse response,
+                    long start, LongAdder dbNanos) {
+      long elapsed = System.nanoTime() - start;
+      int status = response.getStatus();
+      
+      if(shouldLog(elapsed, status)){
+         accessLog.info("method={} route={} status={} userId={} latencyMs={} dbMs={}",
+            request.getMethod(),
+            route(request),
+            status,
+            request.getAttribute(USER_ID_ATTRIBUTE),
+            elapsed / 1_000_000,
+            dbNanos.sum() / 1_000_000);
+      }
+   }
+   
+   private boolean shouldLog(long elapsedNanos, int status) {
+      if(status >= 500 || elapsedNanos >= slowThreshold.toNanos()) return true;
+      return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+   }
+   
+   // 경로 변수가 들어간 실제 URI 대신 매핑된 패턴(/api/todos/{id})을 남긴다.
+   private String route(HttpServletRequest request) {
+      Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+      return pattern != null ? pattern.toString() : request.getRequestURI();
+   }
+   
+}
@@ -0,0 +1,28 @@
+package com.example.todo.filter;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+// 비동기 응답 작업(StreamingResponseBody, Callable)이 실행되는 스레드에
+// 요청의 DB 시간 누적값을 연결해서, 본문을 쓰면서 실행한 SQL도 접근 로그의 DB 시간에 포함시킨다.
+// preProcess/postProcess는 작업 스레드에서 작업 직전/직후에 호출된다.
+public class DbTimeCallableInterceptor implements CallableProcessingInterceptor {
+   
+   @Override
+   public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+      Object elapsed = request.getAttribute(AccessLogFilter.DB_TIME_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+      if (elapsed instanceof LongAdder) {
+         DbTimeListener.bind((LongAdder) elapsed);
+      }
+   }
+   
+   @Override
+   public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+      DbTimeListener.unbind();
+   }
+   
+}
@@ -0,0 +1,36 @@
+package com.example.todo.filter;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.LongAdder;
+
+// 요청별로 SQL 실행에 걸린 시간을 모으는 p6spy 리스너
+// (p6spy 스타터가 JdbcEventListener 빈을 자동으로 등록한다)
+// AccessLogFilter가 요청마다 누적값을 만들어 요청 스레드에 연결하고, 끝날 때 읽어서 접근 로그에 남긴다.
+// 비동기 응답(StreamingResponseBody 등)은 DbTimeCallableInterceptor가 작업 스레드에도 같은 누적값을 연결한다.
+@Component
+public class DbTimeListener extends SimpleJdbcEventListener {
+   
+   private static final ThreadLocal<LongAdder> CURRENT = new ThreadLocal<>();
+   
+   @Override
+   public void onAfterAnyExecute(StatementInformation statementInformation,
+                                 long timeElapsedNanos, SQLException e) {
+      LongAdder elapsed = CURRENT.get();
+      if (elapsed != null) elapsed.add(timeElapsedNanos);
+   }
+   
+   // 현재 스레드에서 실행되는 SQL 시간을 elapsed에 모은다.
+   public static void bind(LongAdder elapsed) {
+      CURRENT.set(elapsed);
+   }
+   
+   // 현재 스레드의 연결을 끊는다. (스레드 풀의 다른 요청에 섞이지 않도록)
+   public static void unbind() {
+      CURRENT.remove();
+   }
+   
+}
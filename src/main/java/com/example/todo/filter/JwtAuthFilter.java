@@ -2,11 +2,12 @@ package com.example.todo.filter;
 
 import com.example.todo.auth.TokenProvider;
 import com.example.todo.auth.TokenUserInfo;
+import com.example.todo.auth.VerifiedToken;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -18,7 +19,6 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 
 //클라이언트가 전송한 토큰을 검사하는 필터
@@ -38,16 +38,16 @@ public class JwtAuthFilter extends OncePerRequestFilter {
       
       try {
          String token = parseBearerToken(request);
-         log.info("Jwt Token Filter is running... - token: {}", token);
          
          //토큰 위조검사 및 인증 완료 처리
          if(token != null){
             // 토큰 서명 위조 검사와 토큰을 파싱해서 클레임을 얻어내는 작업
-            TokenUserInfo userInfo = tokenProvider.validateAndGetTokenUserInfo(token);
+            // (이미 검사한 토큰이면 캐시된 결과를 재사용)
+            VerifiedToken verified = tokenProvider.verify(token);
+            TokenUserInfo userInfo = verified.getUserInfo();
             
-            //인가 정보 리스트
-            List<SimpleGrantedAuthority> authorityList = new ArrayList<>();
-            authorityList.add(new SimpleGrantedAuthority("ROLE_"+userInfo.getRole().toString()));
+            //인가 정보 리스트 (토큰 검사 시 미리 만들어 둔 것)
+            List<GrantedAuthority> authorityList = verified.getAuthorities();
             
             //인증 완료 처리
             // -스프링 시큐리티에게 인증정보를 전달해서
@@ -64,10 +64,13 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             //스프링 시큐리티 컨테이너에 인증 정보 객체 등록
             SecurityContextHolder.getContext().setAuthentication(auth);
             
+            //접근 로그에 남길 회원 ID
+            request.setAttribute(AccessLogFilter.USER_ID_ATTRIBUTE, userInfo.getUserId());
+            
          }
       } catch (Exception e) {
-         e.printStackTrace();
-         log.error("토큰이 위조 되었습니다.");
+         // 토큰 원문은 로그에 남기지 않는다.
+         log.warn("토큰이 위조 되었습니다. 원인: {}", e.getMessage());
       }
       
       //필터 체인에 내가 만든 필터 실행 명령
@@ -87,7 +90,6 @@ public class JwtAuthFilter extends OncePerRequestFilter {
       // 앞에 Bearer가 붙어있으니 이것을 제거하는 작업
       if(StringUtils.hasText(bearerToken)
          && bearerToken.startsWith("Bearer")){ // => 텍스트를 가지고 있고, Bearer로 시작을 한다면
-         log.info("토큰 Bearer 제거 중 : bearerToken: "+bearerToken);
          return bearerToken.substring(7); //공백 포함 7자
       }
       return null;
@@ -0,0 +1,65 @@
+package com.example.todo.storage;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+// 디스크 캐시 파일을 응답 본문으로 넘기기 위한 Resource
+// 파일은 응답을 쓸 때 열리므로 그 전에 다른 요청의 캐시 정리로 지워질 수 있다.
+// 열 때 파일이 없으면 캐시에서 한 번 다시 찾아서(저장소에서 다시 받아서) 연다.
+// 한 번 열린 파일은 지워져도 끝까지 읽힌다.
+class CachedFileResource extends AbstractResource {
+   
+   private final DiskObjectCache cache;
+   private final String key;
+   private volatile Path path;
+   
+   CachedFileResource(DiskObjectCache cache, String key, Path path) {
+      this.cache = cache;
+      this.key = key;
+      this.path = path;
+   }
+   
+   @Override
+   public InputStream getInputStream() throws IOException {
+      try {
+         return Files.newInputStream(path);
+      } catch (NoSuchFileException e) {
+         return Files.newInputStream(reload());
+      }
+   }
+   
+   @Override
+   public long contentLength() throws IOException {
+      try {
+         return Files.size(path);
+      } catch (NoSuchFileException e) {
+         return Files.size(reload());
+      }
+   }
+   
+   @Override
+   public boolean exists() {
+      return true;
+   }
+   
+   @Override
+   public String getDescription() {
+      return "cached object [" + key + "]";
+   }
+   
+   // 캐시에서 다시 찾는다. (지워졌으면 저장소에서 다시 받아옴)
+   private Path reload() throws IOException {
+      try {
+         this.path = cache.find(key).orElseThrow(() -> new NoSuchFileException(key));
+      } catch (IllegalStateException e) {
+         throw new IOException(e.getMessage(), e);
+      }
+      return path;
+   }
+   
+}
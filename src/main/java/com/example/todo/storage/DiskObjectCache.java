@@ -0,0 +1,284 @@
+package com.example.todo.storage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// 원격 저장소(S3) 앞에 두는 로컬 디스크 캐시
+// 자주 보는 프로필 사진을 원격 GET 없이 로컬 파일로 응답하기 위해 사용한다.
+// 전체 파일 크기가 storage.cache.max-size를 넘으면 가장 오래 사용하지 않은 파일부터 지운다. (LRU)
+// 어떤 파일이 있는지는 메모리의 목록으로 관리하고, 파일은 임시 파일에 쓴 뒤 이름을 바꿔서
+// 쓰다 만 파일이 응답되지 않도록 한다.
+// 저장소가 로컬 디렉토리(storage.type=local)이면 캐시를 거치지 않고 그 파일을 그대로 사용한다.
+// 지표: storage.cache.requests (result=hit|miss), storage.cache.size (bytes)
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class DiskObjectCache {
+   
+   private static final String TEMP_SUFFIX = ".tmp";
+   
+   private final ObjectStore objectStore;
+   private final MeterRegistry meterRegistry;
+   
+   // 캐시 파일을 저장할 디렉토리
+   @Value("${storage.cache.dir:${java.io.tmpdir}/todo-object-cache}")
+   private String dirPath;
+   
+   // 캐시 파일 전체의 최대 크기
+   @Value("${storage.cache.max-size:512MB}")
+   private DataSize maxSize;
+   
+   // 캐시에 없을 때 원격 저장소에서 받아오기를 기다리는 최대 시간
+   @Value("${storage.cache.fetch-timeout:10s}")
+   private Duration fetchTimeout;
+   
+   private Path dir;
+   
+   // 캐시 파일 목록 (key: 파일명, value: 파일 크기), 접근 순서로 정렬되어 맨 앞이 가장 오래 사용하지 않은 파일
+   // 아래 두 값은 this로 동기화한다.
+   private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(16, 0.75f, true);
+   private long totalBytes = 0;
+   
+   // 받아오는 중인 파일 (같은 파일을 동시에 요청해도 원격 GET은 한 번만)
+   private final Map<String, CompletableFuture<Optional<Path>>> loading = new ConcurrentHashMap<>();
+   
+   private Counter hits;
+   private Counter misses;
+   
+   @PostConstruct
+   private void initialize() throws IOException {
+      this.dir = Paths.get(dirPath).toAbsolutePath().normalize();
+      Files.createDirectories(dir);
+      
+      // 재시작 전에 받아둔 파일은 다시 사용한다. (수정 시간이 오래된 것부터 목록에 넣음)
+      List<Path> files;
+      try (Stream<Path> list = Files.list(dir)) {
+         files = list.filter(Files::isRegularFile).collect(Collectors.toList());
+      }
+      files.sort(Comparator.comparingLong(this::lastModified));
+      for (Path file : files) {
+         if (file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+            Files.deleteIfExists(file); // 쓰다가 중단된 파일
+         } else {
+            register(file.getFileName().toString(), Files.size(file));
+         }
+      }
+      
+      this.hits = Counter.builder("storage.cache.requests").tag("result", "hit").register(meterRegistry);
+      this.misses = Counter.builder("storage.cache.requests").tag("result", "miss").register(meterRegistry);
+      Gauge.builder("storage.cache.size", this, DiskObjectCache::totalBytes)
+         .baseUnit("bytes")
+         .register(meterRegistry);
+      log.info("디스크 캐시 사용 - {}, 파일 수: {}, 크기: {}bytes", dir, files.size(), totalBytes());
+   }
+   
+   /**
+    * 저장소의 파일을 로컬 디스크에서 찾는다. 캐시에 없으면 저장소에서 받아온다.
+    * @param key - 저장소의 파일명
+    * @return - 로컬 파일 경로 (저장소에도 없으면 빈 값)
+    * @throws IllegalStateException - 저장소에서 받아오지 못한 경우
+    */
+   public Optional<Path> find(String key) throws IllegalStateException {
+      try {
+         return get(key).get(fetchTimeout.toMillis(), TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new IllegalStateException(e);
+      } catch (ExecutionException | TimeoutException e) {
+         throw new IllegalStateException("저장소에서 파일을 받아오지 못했습니다. - " + key, e);
+      }
+   }
+   
+   /**
+    * find()와 같지만 응답 본문으로 바로 넘길 수 있는 Resource를 리턴
+    * 응답을 쓰기 전에 파일이 캐시에서 지워지면 한 번 다시 받아와서 연다.
+    * @param key - 저장소의 파일명
+    * @return - 파일 Resource (저장소에도 없으면 빈 값)
+    * @throws IllegalStateException - 저장소에서 받아오지 못한 경우
+    */
+   public Optional<Resource> findResource(String key) throws IllegalStateException {
+      return find(key).map(path -> new CachedFileResource(this, key, path));
+   }
+   
+   /**
+    * find()와 같지만 기다리지 않고 future를 리턴
+    */
+   public CompletableFuture<Optional<Path>> get(String key) {
+      Optional<Path> local = objectStore.localPath(key);
+      if (local.isPresent()) {
+         return CompletableFuture.completedFuture(local.filter(Files::isRegularFile));
+      }
+      
+      String name = fileName(key);
+      if (touch(name)) {
+         hits.increment();
+         return CompletableFuture.completedFuture(Optional.of(dir.resolve(name)));
+      }
+      misses.increment();
+      
+      CompletableFuture<Optional<Path>> created = new CompletableFuture<>();
+      CompletableFuture<Optional<Path>> existing = loading.putIfAbsent(name, created);
+      if (existing != null) {
+         return existing;
+      }
+      fetch(key, name).whenComplete((path, e) -> {
+         loading.remove(name, created);
+         if (e != null) created.completeExceptionally(e);
+         else created.complete(path);
+      });
+      return created;
+   }
+   
+   /**
+    * 방금 저장소에 올린 파일을 캐시에도 넣는다. (첫 조회부터 원격 GET이 없도록)
+    * 실패해도 다음 조회 때 저장소에서 받아오므로 예외를 던지지 않는다.
+    * @param key - 저장소의 파일명
+    * @param source - 올린 파일
+    */
+   public void put(String key, Path source) {
+      if (objectStore.localPath(key).isPresent()) return;
+      
+      String name = fileName(key);
+      Path temp = tempFile(name);
+      try {
+         Files.copy(source, temp);
+         install(name, temp);
+      } catch (IOException e) {
+         deleteQuietly(temp);
+         log.warn("디스크 캐시 저장 실패 - {}, 원인: {}", key, e.getMessage());
+      }
+   }
+   
+   // 저장소에서 지운 파일을 캐시에서도 지운다.
+   public void remove(String key) {
+      String name = fileName(key);
+      synchronized (this) {
+         Long size = index.remove(name);
+         if (size == null) return;
+         totalBytes -= size;
+      }
+      deleteQuietly(dir.resolve(name));
+   }
+   
+   private CompletableFuture<Optional<Path>> fetch(String key, String name) {
+      Path temp = tempFile(name);
+      return objectStore.download(key, temp)
+         .thenApply(found -> {
+            if (!found) return Optional.<Path>empty();
+            try {
+               return Optional.of(install(name, temp));
+            } catch (IOException e) {
+               throw new UncheckedIOException(e);
+            }
+         })
+         .whenComplete((path, e) -> {
+            if (e != null || path.isEmpty()) deleteQuietly(temp);
+         });
+   }
+   
+   // 다 받은 임시 파일을 캐시 파일로 바꾸고 목록에 넣는다.
+   private Path install(String name, Path temp) throws IOException {
+      long size = Files.size(temp);
+      Path target = dir.resolve(name);
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      register(name, size);
+      return target;
+   }
+   
+   private synchronized void register(String name, long size) {
+      Long previous = index.put(name, size);
+      totalBytes += size - (previous == null ? 0 : previous);
+      evict();
+   }
+   
+   // 최대 크기 이하가 될 때까지 가장 오래 사용하지 않은 파일부터 지운다.
+   // 응답 중인 파일을 지워도 이미 열린 파일은 끝까지 읽힌다.
+   // find()가 리턴했지만 아직 열리지 않은 파일은 지워질 수 있으므로 응답에는 findResource()를 사용한다.
+   private synchronized void evict() {
+      Iterator<Map.Entry<String, Long>> eldest = index.entrySet().iterator();
+      while (totalBytes > maxSize.toBytes() && eldest.hasNext()) {
+         Map.Entry<String, Long> entry = eldest.next();
+         eldest.remove();
+         totalBytes -= entry.getValue();
+         deleteQuietly(dir.resolve(entry.getKey()));
+      }
+   }
+   
+   // 목록에 있으면 가장 최근에 사용한 것으로 표시
+   private synchronized boolean touch(String name) {
+      return index.get(name) != null;
+   }
+   
+   private synchronized long totalBytes() {
+      return totalBytes;
+   }
+   
+   // 임시 파일 경로 (아직 만들지 않음, 같은 파일을 동시에 써도 겹치지 않도록 랜덤 값을 붙임)
+   private Path tempFile(String name) {
+      return dir.resolve(name + "." + UUID.randomUUID() + TEMP_SUFFIX);
+   }
+   
+   // 저장소 파일명에는 /가 들어갈 수 있으므로 해시값을 캐시 파일명으로 사용한다.
+   private static String fileName(String key) {
+      try {
+         byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+         StringBuilder sb = new StringBuilder(hash.length * 2);
+         for (byte b : hash) {
+            sb.append(String.format("%02x", b));
+         }
+         return sb.toString();
+      } catch (NoSuchAlgorithmException e) {
+         throw new IllegalStateException(e); // 모든 JVM이 SHA-256을 지원하므로 발생하지 않음
+      }
+   }
+   
+   private long lastModified(Path file) {
+      try {
+         return Files.getLastModifiedTime(file).toMillis();
+      } catch (IOException e) {
+         return 0;
+      }
+   }
+   
+   private void deleteQuietly(Path path) {
+      try {
+         Files.deleteIfExists(path);
+      } catch (IOException e) {
+         log.warn("캐시 파일 삭제 실패 - {}", path);
+      }
+   }
+   
+}
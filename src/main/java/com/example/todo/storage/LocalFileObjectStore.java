@@ -0,0 +1,100 @@
+package com.example.todo.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// 로컬 디렉토리를 저장소로 사용하는 구현 (storage.type=local)
+// AWS 계정 없이 테스트하거나 업로드 경로의 부하를 측정할 때 사용한다.
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "storage.type", havingValue = "local")
+public class LocalFileObjectStore implements ObjectStore {
+   
+   // 파일을 저장할 루트 디렉토리
+   @Value("${storage.local.root:todo_upload}")
+   private String rootPath;
+   
+   private Path root;
+   
+   @PostConstruct
+   private void initialize() throws IOException {
+      this.root = Paths.get(rootPath).toAbsolutePath().normalize();
+      Files.createDirectories(root);
+      log.info("로컬 파일 저장소 사용 - {}", root);
+   }
+   
+   @Override
+   public CompletableFuture<Void> put(String key, Path source, String contentType) {
+      try {
+         Path target = resolve(key);
+         Files.createDirectories(target.getParent()); // thumb/64/... 처럼 하위 경로가 있는 파일명
+         // 임시 파일에 복사한 뒤 이름을 바꿔서, 읽는 쪽이 쓰다 만 파일을 보지 않도록 한다.
+         Path temp = Files.createTempFile(root, ".upload-", ".tmp");
+         try {
+            Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+         } finally {
+            Files.deleteIfExists(temp);
+         }
+         return CompletableFuture.completedFuture(null);
+      } catch (IOException e) {
+         return CompletableFuture.failedFuture(new UncheckedIOException(e));
+      }
+   }
+   
+   @Override
+   public CompletableFuture<Boolean> download(String key, Path target) {
+      try {
+         Path source = resolve(key);
+         if (!Files.isRegularFile(source)) {
+            return CompletableFuture.completedFuture(false);
+         }
+         Files.copy(source, target);
+         return CompletableFuture.completedFuture(true);
+      } catch (IOException e) {
+         return CompletableFuture.failedFuture(new UncheckedIOException(e));
+      }
+   }
+   
+   @Override
+   public CompletableFuture<Void> delete(String key) {
+      try {
+         Files.deleteIfExists(resolve(key));
+         return CompletableFuture.completedFuture(null);
+      } catch (IOException e) {
+         return CompletableFuture.failedFuture(new UncheckedIOException(e));
+      }
+   }
+   
+   @Override
+   public String url(String key) {
+      return resolve(key).toUri().toString();
+   }
+   
+   @Override
+   public Optional<Path> localPath(String key) {
+      return Optional.of(resolve(key));
+   }
+   
+   // 파일명에 ../ 등을 넣어 루트 밖의 파일에 접근하지 못하도록 막는다.
+   private Path resolve(String key) {
+      Path path = root.resolve(key).normalize();
+      if (!path.startsWith(root) || path.equals(root)) {
+         throw new IllegalArgumentException("잘못된 파일명입니다. - " + key);
+      }
+      return path;
+   }
+   
+}
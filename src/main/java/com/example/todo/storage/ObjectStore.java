@@ -0,0 +1,53 @@
+package com.example.todo.storage;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// 업로드 파일을 보관하는 저장소
+// storage.type 설정으로 구현을 고른다.
+//   s3    : AWS S3 버킷 (기본값)
+//   local : 서버의 로컬 디렉토리 (AWS 없이 테스트, 부하 측정할 때)
+public interface ObjectStore {
+   
+   /**
+    * 파일을 저장소에 저장한다. 전송은 요청 스레드를 붙잡지 않고 진행된다.
+    * @param key - 저장할 파일명
+    * @param source - 저장할 파일 (저장이 끝날 때까지 지우면 안 됨)
+    * @param contentType - 파일의 컨텐츠 타입
+    * @return - 저장이 끝나면 완료되는 future
+    */
+   CompletableFuture<Void> put(String key, Path source, String contentType);
+   
+   /**
+    * 저장소의 파일을 로컬 파일로 받는다.
+    * @param key - 받을 파일명
+    * @param target - 받은 내용을 쓸 파일 (아직 없는 경로여야 함)
+    * @return - 받았으면 true, 저장소에 파일이 없으면 false
+    */
+   CompletableFuture<Boolean> download(String key, Path target);
+   
+   /**
+    * 저장소에서 파일을 지운다.
+    * @param key - 지울 파일명
+    * @return - 삭제가 끝나면 완료되는 future
+    */
+   CompletableFuture<Void> delete(String key);
+   
+   /**
+    * 클라이언트가 파일을 받아갈 수 있는 주소
+    * @param key - 파일명
+    * @return - 파일 url
+    */
+   String url(String key);
+   
+   /**
+    * 파일이 이 서버의 디스크에 있으면 그 경로 (서버가 직접 파일을 응답할 때 사용)
+    * @param key - 파일명
+    * @return - 로컬 파일 경로, 원격 저장소이면 빈 값
+    */
+   default Optional<Path> localPath(String key) {
+      return Optional.empty();
+   }
+   
+}
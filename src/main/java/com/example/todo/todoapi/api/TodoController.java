@@ -1,19 +1,38 @@
 package com.example.todo.todoapi.api;
 
 import com.example.todo.auth.TokenUserInfo;
+import com.example.todo.exception.NoRegisteredArgumentsException;
+import com.example.todo.exception.TodoNotFoundException;
+import com.example.todo.todoapi.dto.request.TodoBatchRequestDTO;
+import com.example.todo.todoapi.dto.request.TodoBulkDoneRequestDTO;
 import com.example.todo.todoapi.dto.request.TodoModifyRequestDTO;
 import com.example.todo.todoapi.dto.request.TodoCreateRequestDTO;
+import com.example.todo.todoapi.dto.response.TodoBatchResponseDTO;
+import com.example.todo.todoapi.dto.response.TodoBulkResultResponseDTO;
+import com.example.todo.todoapi.dto.response.TodoDeltaResponseDTO;
 import com.example.todo.todoapi.dto.response.TodoListResponseDTO;
+import com.example.todo.todoapi.service.TodoExportFormat;
+import com.example.todo.todoapi.service.TodoExportService;
+import com.example.todo.todoapi.service.TodoListVersion;
 import com.example.todo.todoapi.service.TodoService;
 import com.example.todo.userapi.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.List;
+import java.util.Optional;
 
 @RestController
 @Slf4j
@@ -22,41 +41,103 @@ import org.springframework.web.bind.annotation.*;
 //@CrossOrigin(origins = "http://localhost:3000")
 public class TodoController {
 
+    // 페이지 조회 시 기본/최대 페이지 크기
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // 변경된 할 일만 응답받고 싶을 때 클라이언트가 보내는 헤더 값 (RFC 7240)
+    private static final String PREFER_HEADER = "Prefer";
+    private static final String RETURN_MINIMAL = "return=minimal";
+
+    // 본문 없이 응답할 때 변경된 목록 버전을 담는 헤더
+    private static final String LIST_VERSION_HEADER = "Todo-List-Version";
+
+    // 한 번에 삭제할 수 있는 최대 개수
+    private static final int MAX_BULK_DELETE_SIZE = 500;
+
     private final TodoService todoService;
+    private final TodoListVersion todoListVersion;
+    private final TodoExportService todoExportService;
 
     //할 일 등록 요청
     @PostMapping
     public ResponseEntity<?> createTodo(
             @AuthenticationPrincipal TokenUserInfo userInfo
             , @Validated @RequestBody TodoCreateRequestDTO dto
-            , BindingResult result){
-        log.info("등록 요청 들어옴! /api/todos/ POST request");
+            , BindingResult result
+            , @RequestHeader(value = PREFER_HEADER, required = false) String prefer){
+        log.debug("등록 요청 들어옴! /api/todos/ POST request");
 
         if(result.hasErrors()){ //만일 입력값 검증에서 걸렸을 경우
-            log.warn("입력값 검증에서 에러 발생! 원인:", result.getFieldError());
+            log.warn("입력값 검증에서 에러 발생! 원인: {}", result.getFieldError());
 //            FieldError fieldError = result.getFieldError();
             return ResponseEntity.badRequest().body(result.getFieldError());
         }
 
         try {
+            if(isMinimal(prefer)){
+                TodoDeltaResponseDTO created = todoService.insertTodo(dto, userInfo);
+                return minimalResponse(created);
+            }
             TodoListResponseDTO responseDTO = todoService.insert(dto, userInfo);
             return ResponseEntity.ok().body(responseDTO);
         } catch (IllegalStateException e){
             //권한 때문에 발생한 예외 (권한 이상으로 게시글 작성)
             log.warn(e.getMessage());
             return ResponseEntity.status(401).body(e.getMessage());
+        } catch (NoRegisteredArgumentsException e){
+            //토큰은 유효하지만 회원이 없는 경우 (탈퇴 등)
+            log.warn(e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("할 일 등록 실패함. 원인: "+e.getMessage());
         }
     }
 
 
+    //할 일 일괄 처리 요청 (등록/체크/삭제를 한 번에)
+    // POST: /api/todos/batch
+    @PostMapping("/batch")
+    public ResponseEntity<?> applyBatch(
+            @AuthenticationPrincipal TokenUserInfo userInfo
+            , @Validated @RequestBody TodoBatchRequestDTO dto
+            , BindingResult result){
+        log.debug("일괄 처리 요청 들어옴! /api/todos/batch POST request - {}건",
+                dto.getOperations() == null ? 0 : dto.getOperations().size());
+
+        if(result.hasErrors()){
+            log.warn("입력값 검증에서 에러 발생! 원인: {}", result.getFieldError());
+            return ResponseEntity.badRequest().body(result.getFieldError());
+        }
+
+        try {
+            TodoBatchResponseDTO responseDTO = todoService.applyBatch(dto, userInfo);
+            return ResponseEntity.ok().body(responseDTO);
+        } catch (IllegalArgumentException e){
+            return ResponseEntity.badRequest()
+                    .body(TodoBatchResponseDTO.builder().error(e.getMessage()).build());
+        } catch (IllegalStateException e){
+            //권한 때문에 발생한 예외 (권한 이상으로 게시글 작성)
+            log.warn(e.getMessage());
+            return ResponseEntity.status(401).body(e.getMessage());
+        } catch (NoRegisteredArgumentsException e){
+            //토큰은 유효하지만 회원이 없는 경우 (탈퇴 등)
+            log.warn(e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(TodoBatchResponseDTO.builder().error("일괄 처리 실패함. 원인: "+e.getMessage()).build());
+        }
+    }
+
+
     //할 일 삭제 요청
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteTodo(
                     @AuthenticationPrincipal TokenUserInfo userInfo,
-                    @PathVariable("id") String todoId){
-        log.info("삭제 요청 들어옴! /api/todos/{id} DELETE request", todoId);
+                    @PathVariable("id") String todoId,
+                    @RequestHeader(value = PREFER_HEADER, required = false) String prefer){
+        log.debug("삭제 요청 들어옴! /api/todos/{} DELETE request", todoId);
 
         if(todoId == null || todoId.trim().equals("")){ //null이거나 비어있거나
             return ResponseEntity.badRequest()
@@ -64,8 +145,19 @@ public class TodoController {
         }
 
         try {
+            if(isMinimal(prefer)){
+                // 삭제된 할 일은 응답할 내용이 없으므로 204와 변경된 목록 버전만 준다.
+                String version = todoService.deleteTodo(todoId, userInfo.getUserId());
+                return ResponseEntity.noContent()
+                        .header("Preference-Applied", RETURN_MINIMAL)
+                        .header(LIST_VERSION_HEADER, version)
+                        .build();
+            }
             TodoListResponseDTO responseDTO = todoService.delete(todoId, userInfo.getUserId());
             return ResponseEntity.ok().body(responseDTO);
+        } catch (TodoNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(TodoListResponseDTO.builder().error(e.getMessage()).build());
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                     .body(TodoListResponseDTO.builder().error("삭제 실패!"+e.getMessage()));
@@ -74,18 +166,117 @@ public class TodoController {
     }
 
 
+    //할 일 여러 개 삭제 요청
+    // DELETE: /api/todos?ids=aaa,bbb,ccc
+    @DeleteMapping
+    public ResponseEntity<?> deleteTodos(
+                    @AuthenticationPrincipal TokenUserInfo userInfo,
+                    @RequestParam("ids") List<String> todoIds){
+        log.debug("여러 개 삭제 요청 들어옴! /api/todos DELETE request - {}건", todoIds.size());
+
+        if(todoIds.isEmpty() || todoIds.size() > MAX_BULK_DELETE_SIZE){
+            return ResponseEntity.badRequest()
+                    .body(TodoBulkResultResponseDTO.builder()
+                            .error("ID는 1~" + MAX_BULK_DELETE_SIZE + "개까지 전달할 수 있습니다.").build());
+        }
+
+        try {
+            TodoBulkResultResponseDTO responseDTO = todoService.deleteTodos(todoIds, userInfo.getUserId());
+            if(responseDTO.getAffected() == 0){
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok().body(responseDTO);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(TodoBulkResultResponseDTO.builder().error(e.getMessage()).build());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(TodoBulkResultResponseDTO.builder().error("삭제 실패!"+e.getMessage()).build());
+        }
+    }
+
+
     //할 일 목록 요청
+    // GET: /api/todos                       -> 전체 목록
+    // GET: /api/todos?size=20&cursor=xxxx   -> 커서 기반 페이지 목록
     @GetMapping
     public ResponseEntity<?> retrieveTodoList(
        // 토큰에 인증된 사용자 정보를 불러올 수 있다
-       @AuthenticationPrincipal TokenUserInfo userInfo
+       @AuthenticationPrincipal TokenUserInfo userInfo,
+       @RequestParam(required = false) Integer size,
+       @RequestParam(required = false) String cursor,
+       WebRequest request
        ){
-        log.info("목록 요청 들어옴! /api/todos/ GET request");
+        log.debug("목록 요청 들어옴! /api/todos/ GET request");
 
-        //가장 기본 기능이라 에러가 날 경우 프로그램 자체가 동작하지 않음. 때문에 try/catch문 작성은 생략.
-        TodoListResponseDTO responseDTO = todoService.retrieve(userInfo.getUserId());
-        return ResponseEntity.ok().body(responseDTO);
+        //페이지 파라미터가 없으면 기존처럼 전체 목록을 준다.
+        if(size == null && cursor == null){
+            // 목록 버전을 ETag로 사용한다. 목록을 읽기 전에 버전을 먼저 얻어야
+            // 읽는 도중 목록이 바뀌어도 클라이언트가 옛 ETag로 다시 요청해 최신 목록을 받게 된다.
+            // 버전은 한 번만 읽어서 ETag와 목록 캐시 검사에 함께 쓴다.
+            String version = todoListVersion.current(userInfo.getUserId());
+            String eTag = "\"" + version + "\"";
 
+            // If-None-Match가 현재 버전과 같으면 DB 조회, JSON 변환 없이 304 응답
+            if(request.checkNotModified(eTag)){
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(eTag)
+                        .cacheControl(CacheControl.noCache().cachePrivate())
+                        .build();
+            }
+
+            //가장 기본 기능이라 에러가 날 경우 프로그램 자체가 동작하지 않음. 때문에 try/catch문 작성은 생략.
+            TodoListResponseDTO responseDTO = todoService.retrieve(userInfo.getUserId(), version);
+            return ResponseEntity.ok()
+                    .eTag(eTag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(responseDTO);
+        }
+
+        int pageSize = (size == null) ? DEFAULT_PAGE_SIZE : size;
+        if(pageSize < 1 || pageSize > MAX_PAGE_SIZE){
+            return ResponseEntity.badRequest()
+                    .body(TodoListResponseDTO.builder()
+                            .error("size는 1~" + MAX_PAGE_SIZE + " 사이여야 합니다.").build());
+        }
+
+        try {
+            TodoListResponseDTO responseDTO
+                    = todoService.retrievePage(userInfo.getUserId(), cursor, pageSize);
+            return ResponseEntity.ok().body(responseDTO);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(TodoListResponseDTO.builder().error(e.getMessage()).build());
+        }
+
+    }
+
+    //할 일 목록 내보내기 요청
+    // GET: /api/todos/export?format=ndjson|csv
+    // 목록 전체를 메모리에 올리지 않고 DB에서 읽는 대로 바로 응답으로 흘려보낸다.
+    @GetMapping("/export")
+    public ResponseEntity<?> exportTodos(
+            @AuthenticationPrincipal TokenUserInfo userInfo,
+            @RequestParam(defaultValue = "ndjson") String format){
+        log.debug("내보내기 요청 들어옴! /api/todos/export GET request - format: {}", format);
+
+        TodoExportFormat exportFormat;
+        try {
+            exportFormat = TodoExportFormat.from(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        String userId = userInfo.getUserId();
+        StreamingResponseBody body
+                = out -> todoExportService.export(userId, exportFormat, out);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("todos." + exportFormat.getExtension())
+                        .build().toString())
+                .body(body);
     }
 
     //할 일 수정(체크) 요청  //수정 현재 작동안됨! 수정 필요.
@@ -93,15 +284,23 @@ public class TodoController {
     public ResponseEntity<?> updateTodo(
                             @AuthenticationPrincipal TokenUserInfo userInfo,
                             @Validated @RequestBody TodoModifyRequestDTO dto,
-                            BindingResult result){
-        log.info("수정 요청 들어옴! /api/todos/ PUT or PATCH request");
-        log.info("들어온 dto: "+dto);
+                            BindingResult result,
+                            @RequestHeader(value = PREFER_HEADER, required = false) String prefer){
+        log.debug("수정 요청 들어옴! /api/todos/ PUT or PATCH request - dto: {}", dto);
 
         if(result.hasErrors()){
             return ResponseEntity.badRequest().body("잘못된 ID입니다."+result.getFieldError());
         }
 
         try {
+            if(isMinimal(prefer)){
+                Optional<TodoDeltaResponseDTO> modified
+                        = todoService.modifyTodo(dto, userInfo.getUserId());
+                if(modified.isEmpty()){
+                    return ResponseEntity.notFound().build();
+                }
+                return minimalResponse(modified.get());
+            }
             TodoListResponseDTO responseDTO = todoService.modify(dto, userInfo.getUserId());
             return ResponseEntity.ok().body(responseDTO);
         } catch (Exception e) {
@@ -109,8 +308,45 @@ public class TodoController {
                     .body(TodoListResponseDTO.builder().error(e.getMessage()));
         }
     }
-    
-    
-    
+
+
+    //여러 할 일 완료 여부 일괄 변경 요청
+    // PATCH: /api/todos/done  { "ids": [...], "done": true } 또는 { "all": true, "done": true }
+    @PatchMapping("/done")
+    public ResponseEntity<?> markDone(
+                            @AuthenticationPrincipal TokenUserInfo userInfo,
+                            @Validated @RequestBody TodoBulkDoneRequestDTO dto,
+                            BindingResult result){
+        log.debug("일괄 체크 요청 들어옴! /api/todos/done PATCH request");
+
+        if(result.hasErrors()){
+            return ResponseEntity.badRequest().body(result.getFieldError());
+        }
+
+        try {
+            TodoBulkResultResponseDTO responseDTO = todoService.markDone(dto, userInfo.getUserId());
+            return ResponseEntity.ok().body(responseDTO);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(TodoBulkResultResponseDTO.builder().error(e.getMessage()).build());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(TodoBulkResultResponseDTO.builder().error(e.getMessage()).build());
+        }
+    }
+
+
+    // Prefer 헤더에 return=minimal이 있으면 변경된 할 일만 응답한다.
+    private boolean isMinimal(String prefer) {
+        return prefer != null && prefer.contains(RETURN_MINIMAL);
+    }
+
+    // 변경된 할 일과 변경 후의 목록 버전만 담은 응답
+    // 버전은 서비스의 트랜잭션이 올린 값 그대로이므로 다른 요청의 변경이 섞이지 않는다.
+    private ResponseEntity<?> minimalResponse(TodoDeltaResponseDTO responseDTO) {
+        return ResponseEntity.ok()
+                .header("Preference-Applied", RETURN_MINIMAL)
+                .body(responseDTO);
+    }
 
 }
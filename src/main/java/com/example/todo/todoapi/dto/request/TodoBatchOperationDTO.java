@@ -0,0 +1,30 @@
+package com.example.todo.todoapi.dto.request;
+
+import lombok.*;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+// 일괄 처리 요청에 들어있는 작업 한 건
+// CREATE: title 필수 / TOGGLE: id, done 필수 / DELETE: id 필수
+@Getter @Setter
+@ToString @EqualsAndHashCode
+@AllArgsConstructor @NoArgsConstructor
+@Builder
+public class TodoBatchOperationDTO {
+
+    public enum Type {
+        CREATE, TOGGLE, DELETE
+    }
+
+    @NotNull
+    private Type type;
+
+    private String id;
+
+    @Size(min = 2, max = 16)
+    private String title;
+
+    private boolean done;
+
+}
@@ -0,0 +1,21 @@
+package com.example.todo.todoapi.dto.request;
+
+import lombok.*;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+// 여러 건의 등록/체크/삭제를 한 번에 요청할 때 사용
+@Getter @Setter
+@ToString @EqualsAndHashCode
+@AllArgsConstructor @NoArgsConstructor
+@Builder
+public class TodoBatchRequestDTO {
+
+    @NotEmpty
+    @Size(max = 100)
+    private List<@Valid TodoBatchOperationDTO> operations;
+
+}
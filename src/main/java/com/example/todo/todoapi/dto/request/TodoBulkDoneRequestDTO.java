@@ -0,0 +1,23 @@
+package com.example.todo.todoapi.dto.request;
+
+import lombok.*;
+
+import javax.validation.constraints.Size;
+import java.util.List;
+
+// 여러 할 일의 완료 여부를 한 번에 변경하는 요청
+// all이 true면 ids는 무시하고 로그인한 회원의 모든 할 일을 변경한다.
+@Getter @Setter
+@ToString @EqualsAndHashCode
+@AllArgsConstructor @NoArgsConstructor
+@Builder
+public class TodoBulkDoneRequestDTO {
+
+    @Size(max = 500)
+    private List<String> ids;
+
+    private boolean all;
+
+    private boolean done;
+
+}
@@ -0,0 +1,24 @@
+package com.example.todo.todoapi.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.List;
+
+// 일괄 처리 결과
+// results는 요청한 작업 순서대로, 각 작업이 적용된 할 일을 담는다.
+@Getter @Setter
+@ToString @EqualsAndHashCode
+@AllArgsConstructor @NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TodoBatchResponseDTO {
+
+    private String error;
+
+    private List<TodoDetailResponseDTO> results;
+
+    // 일괄 처리가 반영된 뒤의 회원 할 일 목록 버전
+    private String version;
+
+}
@@ -0,0 +1,21 @@
+package com.example.todo.todoapi.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+// 일괄 변경 결과 (실제로 변경된 할 일 개수)
+@Getter @Setter
+@ToString @EqualsAndHashCode
+@AllArgsConstructor @NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TodoBulkResultResponseDTO {
+
+    private String error;
+
+    private int affected;
+
+    // 변경이 반영된 뒤의 회원 할 일 목록 버전
+    private String version;
+
+}
@@ -0,0 +1,22 @@
+package com.example.todo.todoapi.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+// Prefer: return=minimal 요청일 때 전체 목록 대신 변경된 할 일만 담아서 주는 응답
+@Getter @Setter
+@ToString @EqualsAndHashCode
+@AllArgsConstructor @NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TodoDeltaResponseDTO {
+
+    private String error;
+
+    // 등록/수정/삭제된 할 일
+    private TodoDetailResponseDTO todo;
+
+    // 변경이 반영된 뒤의 회원 할 일 목록 버전
+    private String version;
+
+}
@@ -1,5 +1,6 @@
 package com.example.todo.todoapi.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 
 import java.util.List;
@@ -13,5 +14,9 @@ public class TodoListResponseDTO {
     private String error;
     private List<TodoDetailResponseDTO> todos;
 
+    // 다음 페이지 요청에 사용할 커서 (페이지 조회에서 다음 페이지가 없거나 전체 조회면 생략)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
 
 }
@@ -13,7 +13,11 @@ import java.time.LocalDateTime;
 @AllArgsConstructor @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "tbl_todo")
+// 회원별 목록 조회, 키셋 페이지 조회를 위한 (user_id, create_date) 복합 인덱스
+// InnoDB 보조 인덱스는 PK(todo_id)를 뒤에 포함하므로 (create_date, todo_id) 정렬까지 인덱스로 처리된다.
+@Table(name = "tbl_todo", indexes = {
+        @Index(name = "idx_todo_user_create_date", columnList = "user_id, create_date")
+})
 public class Todo {
 
 
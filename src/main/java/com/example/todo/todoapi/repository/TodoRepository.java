@@ -1,12 +1,22 @@
 package com.example.todo.todoapi.repository;
 
+import com.example.todo.todoapi.dto.response.TodoDetailResponseDTO;
 import com.example.todo.todoapi.entity.Todo;
 import com.example.todo.userapi.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 public interface TodoRepository
         extends JpaRepository<Todo, String> {
@@ -17,11 +27,72 @@ public interface TodoRepository
    //특정 회원의 할 일 목록 리턴
    List<Todo> findAllByUser(User user);
    
+   //특정 회원의 할 일 목록을 엔터티가 아닌 DTO로 바로 조회 (등록순)
+   // 필요한 컬럼만 읽고, 영속성 컨텍스트에 엔터티/스냅샷을 만들지 않는다.
+   // 회원은 ID로만 지정하므로 회원 테이블을 조회하거나 조인하지 않는다.
+   // SELECT todo_id, title, done FROM tbl_todo WHERE user_id = ? ORDER BY create_date, todo_id
+   @Query("SELECT new com.example.todo.todoapi.dto.response.TodoDetailResponseDTO(t.todoId, t.title, t.done)" +
+          " FROM Todo t WHERE t.user.id = :userId" +
+          " ORDER BY t.createDate ASC, t.todoId ASC")
+   List<TodoDetailResponseDTO> findDetailsByUserId(@Param("userId") String userId);
    
-   //특정 회원이 작성한 할 일 목록의 개수를 리턴
-   @Query("SELECT COUNT(*) FROM Todo t WHERE t.user = :user")
-   int countByUser(@Param("user") User user);
-
-
+   
+   //특정 회원의 할 일 목록을 한 행씩 스트림으로 조회 (내보내기용)
+   // fetch size를 Integer.MIN_VALUE로 주면 MySQL 드라이버가 결과를 한 번에 메모리에 올리지 않고
+   // 한 행씩 읽어온다. 스트림은 트랜잭션 안에서 사용하고 반드시 닫아야 한다.
+   @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+   @Query("SELECT t FROM Todo t WHERE t.user.id = :userId" +
+          " ORDER BY t.createDate ASC, t.todoId ASC")
+   Stream<Todo> streamAllByUserId(@Param("userId") String userId);
+   
+   
+   //키셋 페이지네이션: 첫 페이지 (등록순 정렬, 개수는 pageable로 제한)
+   // SELECT * FROM tbl_todo WHERE user_id = ? ORDER BY create_date, todo_id LIMIT ?
+   @Query("SELECT t FROM Todo t WHERE t.user.id = :userId" +
+          " ORDER BY t.createDate ASC, t.todoId ASC")
+   List<Todo> findFirstPageByUserId(@Param("userId") String userId, Pageable pageable);
+   
+   //키셋 페이지네이션: 커서(마지막으로 받은 등록시간, ID) 이후의 페이지
+   // OFFSET을 쓰지 않으므로 뒤쪽 페이지로 갈수록 느려지지 않는다.
+   @Query("SELECT t FROM Todo t WHERE t.user.id = :userId" +
+          " AND (t.createDate > :createDate" +
+          "      OR (t.createDate = :createDate AND t.todoId > :todoId))" +
+          " ORDER BY t.createDate ASC, t.todoId ASC")
+   List<Todo> findPageByUserIdAfter(@Param("userId") String userId,
+                                    @Param("createDate") LocalDateTime createDate,
+                                    @Param("todoId") String todoId,
+                                    Pageable pageable);
+   
+   
+   //특정 회원의 할 일들의 완료 여부를 한 번에 변경 (본인 할 일만 변경됨)
+   // UPDATE tbl_todo SET done = ? WHERE user_id = ? AND todo_id IN (...)
+   @Modifying(clearAutomatically = true)
+   @Query("UPDATE Todo t SET t.done = :done" +
+          " WHERE t.user.id = :userId AND t.todoId IN :todoIds")
+   int updateDoneByUserIdAndTodoIds(@Param("userId") String userId,
+                                    @Param("todoIds") Collection<String> todoIds,
+                                    @Param("done") boolean done);
+   
+   //특정 회원의 모든 할 일의 완료 여부를 한 번에 변경
+   // UPDATE tbl_todo SET done = ? WHERE user_id = ?
+   @Modifying(clearAutomatically = true)
+   @Query("UPDATE Todo t SET t.done = :done WHERE t.user.id = :userId")
+   int updateDoneByUserId(@Param("userId") String userId,
+                          @Param("done") boolean done);
+   
+   
+   //본인 할 일을 조회 없이 바로 삭제 (삭제된 행 개수 리턴)
+   // DELETE FROM tbl_todo WHERE todo_id = ? AND user_id = ?
+   @Modifying(clearAutomatically = true)
+   @Query("DELETE FROM Todo t WHERE t.todoId = :todoId AND t.user.id = :userId")
+   int deleteByTodoIdAndUserId(@Param("todoId") String todoId,
+                               @Param("userId") String userId);
+   
+   //본인 할 일 여러 개를 조회 없이 바로 삭제 (삭제된 행 개수 리턴)
+   // DELETE FROM tbl_todo WHERE user_id = ? AND todo_id IN (...)
+   @Modifying(clearAutomatically = true)
+   @Query("DELETE FROM Todo t WHERE t.user.id = :userId AND t.todoId IN :todoIds")
+   int deleteByUserIdAndTodoIds(@Param("userId") String userId,
+                                @Param("todoIds") Collection<String> todoIds);
 
 }
@@ -0,0 +1,57 @@
+package com.example.todo.todoapi.service;
+
+import com.example.todo.todoapi.entity.Todo;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// 키셋 페이지네이션에 사용하는 커서
+// 마지막으로 내려준 할 일의 (등록시간, ID)를 클라이언트가 내용을 신경쓰지 않도록
+// base64url 문자열로 감싸서 주고 받는다.
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class TodoCursor {
+
+    private static final String DELIMITER = "|";
+
+    private final LocalDateTime createDate;
+    private final String todoId;
+
+    // 페이지의 마지막 할 일로 다음 페이지 커서를 만든다.
+    public static TodoCursor of(Todo lastTodo) {
+        return new TodoCursor(lastTodo.getCreateDate(), lastTodo.getTodoId());
+    }
+
+    /**
+     * 클라이언트가 보낸 커서 문자열을 해석
+     * @param cursor - nextCursor로 내려줬던 문자열
+     * @return - 해석된 커서
+     * @throws IllegalArgumentException - 형식이 맞지 않는 커서일 경우
+     */
+    public static TodoCursor decode(String cursor) {
+        try {
+            String raw = new String(
+                    Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int idx = raw.indexOf(DELIMITER);
+            if (idx < 0) {
+                throw new IllegalArgumentException("잘못된 커서입니다.");
+            }
+            return new TodoCursor(
+                    LocalDateTime.parse(raw.substring(0, idx)),
+                    raw.substring(idx + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다.");
+        }
+    }
+
+    public String encode() {
+        String raw = createDate + DELIMITER + todoId;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
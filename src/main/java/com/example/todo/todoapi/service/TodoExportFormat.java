@@ -0,0 +1,29 @@
+package com.example.todo.todoapi.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// 할 일 내보내기 형식
+@Getter
+@RequiredArgsConstructor
+public enum TodoExportFormat {
+
+    NDJSON("application/x-ndjson", "ndjson"), // 한 줄에 JSON 객체 하나
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    /**
+     * 요청 파라미터 값으로 형식을 찾는다. (대소문자 무시)
+     * @throws IllegalArgumentException - 지원하지 않는 형식인 경우
+     */
+    public static TodoExportFormat from(String format) {
+        for (TodoExportFormat value : values()) {
+            if (value.extension.equalsIgnoreCase(format)) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("지원하지 않는 형식입니다: " + format);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.todo.todoapi.service;
+
+import com.example.todo.todoapi.entity.Todo;
+import com.example.todo.todoapi.repository.TodoRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// 회원의 할 일 목록을 파일로 내보내는 서비스
+// 목록을 메모리에 모으지 않고 DB에서 한 행씩 읽어서 바로 응답 스트림에 쓴다.
+@Service
+@Slf4j
+@RequiredArgsConstructor
+@Transactional
+public class TodoExportService {
+
+    private static final String CSV_HEADER = "id,title,done,createDate";
+
+    private final TodoRepository todoRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 회원의 할 일 목록을 지정한 형식으로 out에 쓴다.
+     * 스트림 조회는 트랜잭션 안에서만 가능하므로 응답 스레드에서 이 메서드를 직접 호출해야 한다.
+     * @param userId - 로그인한 회원 ID
+     * @param format - 내보낼 형식
+     * @param out - 응답 스트림
+     */
+    public void export(String userId, TodoExportFormat format, OutputStream out) throws IOException {
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        int count = 0;
+
+        try (Stream<Todo> todos = todoRepository.streamAllByUserId(userId)) {
+            if (format == TodoExportFormat.CSV) {
+                count = writeCsv(todos.iterator(), writer);
+            } else {
+                count = writeNdjson(todos.iterator(), writer);
+            }
+        }
+        writer.flush();
+        log.debug("할 일 내보내기 완료 - user: {}, format: {}, count: {}", userId, format, count);
+    }
+
+    private int writeNdjson(Iterator<Todo> todos, Writer writer) throws IOException {
+        JsonGenerator gen = objectMapper.getFactory().createGenerator(writer);
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        gen.setRootValueSeparator(null);
+
+        int count = 0;
+        while (todos.hasNext()) {
+            Todo todo = todos.next();
+            gen.writeStartObject();
+            gen.writeStringField("id", todo.getTodoId());
+            gen.writeStringField("title", todo.getTitle());
+            gen.writeBooleanField("done", todo.isDone());
+            gen.writeStringField("createDate", String.valueOf(todo.getCreateDate()));
+            gen.writeEndObject();
+            gen.writeRaw('\n');
+            detach(todo);
+            count++;
+        }
+        gen.flush();
+        return count;
+    }
+
+    private int writeCsv(Iterator<Todo> todos, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+
+        int count = 0;
+        while (todos.hasNext()) {
+            Todo todo = todos.next();
+            writer.write(todo.getTodoId());
+            writer.write(',');
+            writer.write(csvField(todo.getTitle()));
+            writer.write(',');
+            writer.write(String.valueOf(todo.isDone()));
+            writer.write(',');
+            writer.write(String.valueOf(todo.getCreateDate()));
+            writer.write('\n');
+            detach(todo);
+            count++;
+        }
+        return count;
+    }
+
+    // 쓴 엔터티는 영속성 컨텍스트에서 바로 빼서 행 수와 상관없이 메모리를 일정하게 유지한다.
+    private void detach(Todo todo) {
+        entityManager.detach(todo);
+    }
+
+    // 쉼표, 따옴표, 줄바꿈이 있으면 따옴표로 감싸고,
+    // 스프레드시트에서 수식으로 실행될 수 있는 값은 앞에 '를 붙인다.
+    private String csvField(String value) {
+        if (value == null) return "";
+        if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.contains(",") || value.contains("\"")
+                || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.example.todo.todoapi.service;
+
+import com.example.todo.todoapi.dto.response.TodoDetailResponseDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+// 회원별 할 일 목록을 메모리에 보관하는 캐시
+// 목록 조회가 대부분의 요청이므로 변경이 없으면 목록 조회 쿼리 없이 응답한다.
+// 항목은 저장할 때의 목록 버전과 함께 보관하고, 모든 서버가 공유하는 버전(회원 행)과 같을 때만 사용하므로
+// 다른 서버에서 목록을 바꾸면 이 서버의 캐시도 바로 무효가 된다.
+// 지표: cache.gets(result=hit|miss), cache.evictions, cache.size (name=todoList)
+@Component
+@RequiredArgsConstructor
+public class TodoListCache {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${todo.cache.max-users:10000}")
+    private long maxUsers;
+
+    @Value("${todo.cache.ttl:5m}")
+    private Duration ttl;
+
+    private Cache<String, CachedTodoList> cache;
+
+    @PostConstruct
+    private void initialize(){
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "todoList");
+    }
+
+    /**
+     * 캐시된 할 일 목록을 리턴하고, 없으면 loader로 읽어서 캐시에 저장
+     * 트랜잭션 안에서 변경 중인 목록을 읽을 때는 사용하면 안 된다.
+     * @param userId - 회원 ID
+     * @param version - 목록을 읽기 전에 얻은 현재 목록 버전
+     *                  (읽는 도중 목록이 바뀌면 버전이 달라지므로 옛 목록이 새 버전으로 남지 않는다)
+     * @param loader - 캐시에 없을 때 DB에서 목록을 읽어오는 함수
+     * @return - 수정할 수 없는 할 일 목록
+     */
+    public List<TodoDetailResponseDTO> get(String userId, String version,
+                                           Supplier<List<TodoDetailResponseDTO>> loader){
+
+        CachedTodoList cached = cache.getIfPresent(userId);
+        if(cached != null && cached.version.equals(version)){
+            return cached.todos;
+        }
+
+        List<TodoDetailResponseDTO> todos = List.copyOf(loader.get());
+        cache.put(userId, new CachedTodoList(version, todos));
+        return todos;
+    }
+
+    // 회원의 캐시된 목록을 비운다.
+    public void invalidate(String userId){
+        cache.invalidate(userId);
+    }
+
+    @RequiredArgsConstructor
+    private static class CachedTodoList {
+        private final String version;
+        private final List<TodoDetailResponseDTO> todos;
+    }
+
+}
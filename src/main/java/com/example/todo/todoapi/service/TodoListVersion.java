@@ -0,0 +1,45 @@
+package com.example.todo.todoapi.service;
+
+import com.example.todo.userapi.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.transaction.Transactional;
+
+// 회원별 할 일 목록의 버전을 관리하는 객체
+// 할 일이 등록/수정/삭제될 때마다 버전이 바뀌므로
+// 클라이언트는 목록을 다시 받지 않고도 자기가 가진 목록이 최신인지 알 수 있다.
+// 버전은 회원 행(todo_list_version)에 저장하므로 서버가 여러 대여도 모두 같은 버전을 본다.
+@Component
+@RequiredArgsConstructor
+public class TodoListVersion {
+
+    private final UserRepository userRepository;
+
+    /**
+     * 회원의 현재 할 일 목록 버전 (회원 행의 한 컬럼만 기본키로 조회)
+     * @param userId - 회원 ID
+     * @return - 목록이 바뀌면 함께 바뀌는 버전 문자열
+     */
+    public String current(String userId){
+        return format(userId, userRepository.findTodoListVersion(userId).orElse(0L));
+    }
+
+    /**
+     * 회원의 목록 버전을 올린다. 목록을 바꾸는 트랜잭션 안에서 호출해야 한다.
+     * 회원 행이 커밋까지 잠기므로 리턴한 버전은 이 트랜잭션의 변경까지만 반영한 값이다.
+     * @param userId - 회원 ID
+     * @return - 올라간 버전 문자열
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public String bump(String userId){
+        userRepository.increaseTodoListVersion(userId);
+        return current(userId);
+    }
+
+    // 목록 주소는 모든 회원이 같으므로 다른 회원의 버전(ETag)과 겹치지 않도록 회원 ID를 붙인다.
+    private static String format(String userId, long version){
+        return Long.toString(version, 36) + "-" + userId;
+    }
+
+}
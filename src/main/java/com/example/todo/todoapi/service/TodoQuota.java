@@ -0,0 +1,78 @@
+package com.example.todo.todoapi.service;
+
+import com.example.todo.exception.NoRegisteredArgumentsException;
+import com.example.todo.userapi.entity.Role;
+import com.example.todo.userapi.repository.UserRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.transaction.Transactional;
+import java.util.EnumMap;
+import java.util.Map;
+
+// 권한별 할 일 작성 개수 제한
+// 회원 테이블의 todo_count 컬럼을 조건부 UPDATE로 늘리고 줄여서
+// COUNT(*) 조회 없이, 동시에 등록해도 제한을 넘지 않도록 검사한다.
+//   todo.quota.limits.COMMON=5      (설정이 없는 권한은 제한 없음)
+// 컬럼이 추가되기 전에 가입한 회원은 todo_count가 null이며, 서버 시작 시 실제 개수로 채운다.
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConfigurationProperties(prefix = "todo.quota")
+public class TodoQuota {
+
+    private final UserRepository userRepository;
+
+    @Getter @Setter
+    private Map<Role, Integer> limits = new EnumMap<>(Map.of(Role.COMMON, 5));
+
+    /**
+     * 할 일 amount개를 작성할 자리를 확보
+     * 호출한 트랜잭션이 롤백되면 확보한 개수도 함께 취소된다.
+     * @param userId - 회원 ID
+     * @param role - 회원 권한
+     * @param amount - 새로 작성할 할 일 개수
+     * @throws IllegalStateException - 권한별 제한을 넘는 경우
+     * @throws NoRegisteredArgumentsException - 회원이 없는 경우 (토큰 발급 후 탈퇴 등)
+     */
+    public void reserve(String userId, Role role, int amount)
+            throws IllegalStateException, NoRegisteredArgumentsException {
+        if (amount <= 0) return;
+
+        int limit = limits.getOrDefault(role, Integer.MAX_VALUE);
+        if (userRepository.increaseTodoCount(userId, amount, limit) > 0) return;
+
+        // 변경된 행이 없는 이유가 제한 초과가 아닐 수 있으므로 구분한다.
+        // 아직 세지 않은 회원이면 지금 세고 한 번 더 시도한다.
+        if (userRepository.countUncountedTodoCount(userId) > 0) {
+            if (userRepository.increaseTodoCount(userId, amount, limit) > 0) return;
+        } else if (!userRepository.existsById(userId)) {
+            throw new NoRegisteredArgumentsException("회원 조회에 실패!");
+        }
+        throw new IllegalStateException(role + " 회원은 일정을 " + limit + "개까지만 작성할 수 있다.");
+    }
+
+    // 삭제된 할 일 개수만큼 자리를 돌려준다.
+    public void release(String userId, int amount) {
+        if (amount <= 0) return;
+        userRepository.decreaseTodoCount(userId, amount);
+    }
+
+    // 컬럼 추가 이전에 가입한 회원(todo_count가 null)의 개수를 채운다.
+    // 채운 뒤에는 대상이 없으므로 배포 후 처음 한 번만 실제로 계산된다.
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void countUncounted() {
+        int updated = userRepository.countUncountedTodoCounts();
+        if (updated > 0) {
+            log.info("할 일 개수를 처음 계산한 회원 수: {}", updated);
+        }
+    }
+
+}
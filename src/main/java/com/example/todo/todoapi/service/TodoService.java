@@ -1,22 +1,35 @@
 package com.example.todo.todoapi.service;
 
 import com.example.todo.auth.TokenUserInfo;
+import com.example.todo.exception.TodoNotFoundException;
+import com.example.todo.todoapi.dto.request.TodoBatchOperationDTO;
+import com.example.todo.todoapi.dto.request.TodoBatchRequestDTO;
+import com.example.todo.todoapi.dto.request.TodoBulkDoneRequestDTO;
 import com.example.todo.todoapi.dto.request.TodoModifyRequestDTO;
 import com.example.todo.todoapi.dto.request.TodoCreateRequestDTO;
+import com.example.todo.todoapi.dto.response.TodoBatchResponseDTO;
+import com.example.todo.todoapi.dto.response.TodoBulkResultResponseDTO;
+import com.example.todo.todoapi.dto.response.TodoDeltaResponseDTO;
 import com.example.todo.todoapi.dto.response.TodoDetailResponseDTO;
 import com.example.todo.todoapi.dto.response.TodoListResponseDTO;
 import com.example.todo.todoapi.entity.Todo;
 import com.example.todo.todoapi.repository.TodoRepository;
-import com.example.todo.userapi.entity.Role;
 import com.example.todo.userapi.entity.User;
 import com.example.todo.userapi.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.transaction.Transactional;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,17 +40,70 @@ public class TodoService {
 
     private final TodoRepository todoRepository;
     private final UserRepository userRepository;
+    private final TodoListVersion todoListVersion;
+    private final TodoListCache todoListCache;
+    private final TodoQuota todoQuota;
 
     //할 일 목록 조회
     // 요청에 따라 데이터 갱신, 삭제 등이 발생을 하면
     // 요청이 반영된 최신 데이터 내용을 클라이언트에게 전달하기 위해
     // 목록 리턴 메서드를 서비스에서 처리한다.
-    public TodoListResponseDTO retrieve(String userId){
-        
-        // 로그인 한 유저의 정보 데이터베이스에서 조회
-        User user = getUser(userId);
+    // 캐시 적중 시에는 트랜잭션(커넥션 확보, autocommit 전환, 커밋)이 없도록 트랜잭션 없이 실행하고,
+    // 캐시에 없을 때만 목록 조회 쿼리가 실행된다.
+    //   version - 목록을 읽기 전에 얻은 목록 버전 (TodoListVersion.current)
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public TodoListResponseDTO retrieve(String userId, String version){
+
+        // 목록이 바뀌지 않았다면 캐시에서 바로 응답한다.
+        List<TodoDetailResponseDTO> dtoList
+                = todoListCache.get(userId, version, () -> loadTodoList(userId));
+
+        return TodoListResponseDTO.builder()
+                .todos(dtoList)
+                .build();
+    }
+
+    // 등록/수정/삭제 직후에 최신 목록을 리턴할 때 사용
+    // 아직 커밋 전이라 캐시는 옛 목록이므로 DB에서 직접 읽는다.
+    private TodoListResponseDTO retrieveUncached(String userId){
+        return TodoListResponseDTO.builder()
+                .todos(loadTodoList(userId))
+                .build();
+    }
+
+    private List<TodoDetailResponseDTO> loadTodoList(String userId){
         
-        List<Todo> entityList = todoRepository.findAllByUser(user);
+        // 토큰 검사를 통과한 회원 ID로 바로 조회 (회원 SELECT 없이 쿼리 1번)
+        // 엔터티를 거치지 않고 DTO로 바로 조회
+        return todoRepository.findDetailsByUserId(userId);
+    }
+    
+    /**
+     * 할 일 목록을 키셋(커서) 방식으로 한 페이지씩 조회
+     * 회원의 할 일 개수와 상관없이 한 번에 pageSize 개만 읽어온다.
+     * @param userId - 로그인한 회원 ID
+     * @param cursor - 이전 페이지 응답의 nextCursor (첫 페이지는 null)
+     * @param pageSize - 한 페이지에 담을 할 일 개수
+     * @return - 페이지 목록과 다음 페이지 커서 (마지막 페이지면 커서는 null)
+     * @throws IllegalArgumentException - 커서 형식이 잘못된 경우
+     */
+    public TodoListResponseDTO retrievePage(String userId, String cursor, int pageSize) {
+
+        // 다음 페이지 존재 여부를 알기 위해 1개 더 조회한다.
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<Todo> entityList;
+        if (cursor == null || cursor.isBlank()) {
+            entityList = todoRepository.findFirstPageByUserId(userId, limit);
+        } else {
+            TodoCursor after = TodoCursor.decode(cursor);
+            entityList = todoRepository.findPageByUserIdAfter(
+                    userId, after.getCreateDate(), after.getTodoId(), limit);
+        }
+
+        boolean hasNext = entityList.size() > pageSize;
+        if (hasNext) {
+            entityList = entityList.subList(0, pageSize);
+        }
 
         List<TodoDetailResponseDTO> dtoList
                 = entityList.stream()
@@ -46,56 +112,182 @@ public class TodoService {
 
         return TodoListResponseDTO.builder()
                 .todos(dtoList)
+                .nextCursor(hasNext
+                        ? TodoCursor.of(entityList.get(entityList.size() - 1)).encode()
+                        : null)
                 .build();
     }
-    
-    private User getUser(String userId) { //회원 정보가 없습니다 메서드 생성
-        User user = userRepository.findById(userId).orElseThrow(
-                        () -> new RuntimeException("회원 정보가 없습니다."));
-        return user;
+
+    // 할 일의 FK로 쓸 회원 참조 객체 (SELECT 없이 ID만 가진 프록시)
+    // 회원 ID는 JwtAuthFilter에서 서명 검사를 마친 토큰에서 온 값이므로 다시 조회하지 않는다.
+    private User userReference(String userId) {
+        return userRepository.getReferenceById(userId);
     }
     
     
     //할 일 삭제하기
-    public TodoListResponseDTO delete(final String todoId, String userId) {
-
-        try {
-            todoRepository.deleteById(todoId);
-        } catch (Exception e) {
-            log.error("존재하지 않는 아이디입니다. ID: {}, 에러원인: {}"
-                    , todoId, e.getMessage());
-            throw new RuntimeException("존재하지 않는 아이디입니다.");
+    public TodoListResponseDTO delete(final String todoId, String userId)
+            throws TodoNotFoundException {
+        deleteTodo(todoId, userId);
+        return retrieveUncached(userId);
+    }
+
+    // 할 일 삭제 (목록 재조회 없음), 삭제가 반영된 목록 버전을 리턴
+    // 조회 없이 DELETE 한 번으로 삭제하며, 본인의 할 일이 아니면 삭제되지 않는다.
+    public String deleteTodo(final String todoId, String userId)
+            throws TodoNotFoundException {
+
+        int affected = todoRepository.deleteByTodoIdAndUserId(todoId, userId);
+        if (affected == 0) {
+            log.warn("존재하지 않는 아이디입니다. ID: {}", todoId);
+            throw new TodoNotFoundException("존재하지 않는 아이디입니다.");
         }
+        todoQuota.release(userId, affected);
+        return listChanged(userId);
+    }
 
-        return retrieve(userId);
+    // 본인 할 일 여러 개를 DELETE 한 번으로 삭제하고, 삭제된 개수와 목록 버전을 리턴
+    public TodoBulkResultResponseDTO deleteTodos(final List<String> todoIds, String userId)
+            throws IllegalArgumentException {
+
+        int affected = todoRepository.deleteByUserIdAndTodoIds(userId, toIdSet(todoIds));
+        String version;
+        if (affected > 0) {
+            todoQuota.release(userId, affected);
+            version = listChanged(userId);
+        } else {
+            version = todoListVersion.current(userId);
+        }
+        return TodoBulkResultResponseDTO.builder()
+                .affected(affected)
+                .version(version)
+                .build();
     }
 
     // 할 일 등록하기
     public TodoListResponseDTO insert(
+       final TodoCreateRequestDTO dto,
+       final TokenUserInfo userInfo)
+            throws RuntimeException, IllegalStateException{
+        insertTodo(dto, userInfo);
+        return retrieveUncached(userInfo.getUserId());
+    }
+
+    // 할 일 등록 후 등록된 할 일과 등록이 반영된 목록 버전만 리턴 (목록 재조회 없음)
+    public TodoDeltaResponseDTO insertTodo(
        final TodoCreateRequestDTO dto,
        final TokenUserInfo userInfo)
             throws RuntimeException, IllegalStateException{
         
         
-        User foundUser = getUser(userInfo.getUserId());
+        User foundUser = userReference(userInfo.getUserId());
         Todo todo = dto.toEntity(foundUser);
         
         //권한에 따른 글쓰기 제한 처리
-        // 일반 회원: 일정을 5개를 초과해서 작성하면 예외를 발생
-        if(userInfo.getRole() == Role.COMMON && todoRepository.countByUser(foundUser) >= 5 ){
-            throw new IllegalStateException("일반 회원은 더 이상 일정을 작성할 수 없다.");
-        }
-        
-        
+        // 권한별 제한 개수(기본: 일반 회원 5개)를 초과해서 작성하면 예외를 발생
+        todoQuota.reserve(userInfo.getUserId(), userInfo.getRole(), 1);
         
-        todoRepository.save(todo);
-        return retrieve(userInfo.getUserId());
+        Todo saved = todoRepository.save(todo);
+        return TodoDeltaResponseDTO.builder()
+                .todo(new TodoDetailResponseDTO(saved))
+                .version(listChanged(userInfo.getUserId()))
+                .build();
+    }
+
+    /**
+     * 여러 건의 등록/체크/삭제를 하나의 트랜잭션으로 처리
+     * 변경 내용은 커밋 직전에 JDBC 배치로 한꺼번에 전송되고,
+     * 하나라도 실패하면 전체가 취소된다.
+     * @param dto - 요청 순서대로 처리할 작업 목록
+     * @param userInfo - 로그인한 회원 정보
+     * @return - 작업 순서대로 적용된 할 일 목록과 일괄 처리가 반영된 목록 버전
+     * @throws IllegalArgumentException - 작업 내용이 잘못됐거나 대상 할 일이 없는 경우
+     * @throws IllegalStateException - 일반 회원의 일정 개수 제한을 넘는 경우
+     */
+    public TodoBatchResponseDTO applyBatch(
+       final TodoBatchRequestDTO dto,
+       final TokenUserInfo userInfo)
+            throws IllegalArgumentException, IllegalStateException {
+
+        List<TodoBatchOperationDTO> operations = dto.getOperations();
+        User foundUser = userReference(userInfo.getUserId());
+
+        // 체크/삭제 대상은 IN 조회 한 번으로 불러온다. (다른 회원의 할 일은 제외)
+        Set<String> targetIds = operations.stream()
+                .filter(op -> op.getType() != TodoBatchOperationDTO.Type.CREATE)
+                .map(op -> {
+                    if (op.getId() == null || op.getId().isBlank()) {
+                        throw new IllegalArgumentException(op.getType() + " 작업에 ID가 없습니다.");
+                    }
+                    return op.getId();
+                })
+                .collect(Collectors.toSet());
+        Map<String, Todo> targets = todoRepository.findAllById(targetIds).stream()
+                .filter(todo -> todo.getUser().getId().equals(userInfo.getUserId()))
+                .collect(Collectors.toMap(Todo::getTodoId, Function.identity()));
+
+        List<TodoDetailResponseDTO> results = new ArrayList<>();
+        int createdCount = 0;
+        int deletedCount = 0;
+        for (TodoBatchOperationDTO op : operations) {
+            switch (op.getType()) {
+                case CREATE: {
+                    if (op.getTitle() == null || op.getTitle().isBlank()) {
+                        throw new IllegalArgumentException("CREATE 작업에 제목이 없습니다.");
+                    }
+                    // uuid 생성기는 INSERT 없이 ID를 만들 수 있어 INSERT가 배치로 모인다.
+                    Todo saved = todoRepository.save(Todo.builder()
+                            .title(op.getTitle())
+                            .user(foundUser)
+                            .build());
+                    results.add(new TodoDetailResponseDTO(saved));
+                    createdCount++;
+                    break;
+                }
+                case TOGGLE: {
+                    Todo target = findBatchTarget(targets, op);
+                    target.setDone(op.isDone()); // 변경 감지로 UPDATE가 배치로 모인다.
+                    results.add(new TodoDetailResponseDTO(target));
+                    break;
+                }
+                case DELETE: {
+                    Todo target = findBatchTarget(targets, op);
+                    todoRepository.delete(target);
+                    targets.remove(target.getTodoId());
+                    deletedCount++;
+                    results.add(new TodoDetailResponseDTO(target));
+                    break;
+                }
+            }
+        }
+
+        //권한에 따른 글쓰기 제한 처리 (일괄 처리 전체에 대해 한 번만 검사)
+        // 삭제/등록을 모두 반영한 증감분으로 검사한다.
+        int delta = createdCount - deletedCount;
+        if (delta > 0) {
+            todoQuota.reserve(userInfo.getUserId(), userInfo.getRole(), delta);
+        } else {
+            todoQuota.release(userInfo.getUserId(), -delta);
+        }
+
+        return TodoBatchResponseDTO.builder()
+                .results(results)
+                .version(listChanged(userInfo.getUserId()))
+                .build();
+    }
+
+    private Todo findBatchTarget(Map<String, Todo> targets, TodoBatchOperationDTO op) {
+        Todo target = targets.get(op.getId());
+        if (target == null) {
+            throw new IllegalArgumentException("존재하지 않는 아이디입니다. ID: " + op.getId());
+        }
+        return target;
     }
 
     // done 수정하기 (할 일 체크)
 //    public TodoListResponseDTO modify(TodoModifyRequestDTO dto)
 //            throws RuntimeException {
-//        log.info("service 진입"+dto);
+//        log.debug("service 진입 - dto: {}", dto);
 //        Todo updateTodo = todoRepository.findById(dto.getId())
 //                .orElseThrow( () -> new RuntimeException(dto.getId() + "번 게시물이 존재하지 않습니다."));
 //        updateTodo.setDone(dto.isDone());
@@ -107,17 +299,86 @@ public class TodoService {
 
     public TodoListResponseDTO modify(TodoModifyRequestDTO dto, String userId)
             throws RuntimeException {
-        log.info("service 진입"+dto);
+        log.debug("service 진입 - dto: {}", dto);
+        // 조회 없이 UPDATE 한 번으로 변경 (본인 할 일이 아니면 변경되지 않음)
+        int affected = todoRepository.updateDoneByUserIdAndTodoIds(
+                userId, List.of(dto.getId()), dto.isDone());
+        if (affected > 0) {
+            listChanged(userId);
+            log.debug("service에서 setDone 완료");
+        }
+        return retrieveUncached(userId);
+    }
+
+    // done 수정 후 수정된 할 일과 수정이 반영된 목록 버전만 리턴 (목록 재조회 없음)
+    // 대상이 없거나 본인의 할 일이 아니면 빈 Optional
+    public Optional<TodoDeltaResponseDTO> modifyTodo(TodoModifyRequestDTO dto, String userId)
+            throws RuntimeException {
+        log.debug("service 진입 - dto: {}", dto);
         Optional<Todo> targetEntity
-                = todoRepository.findById(dto.getId());
+                = todoRepository.findById(dto.getId())
+                .filter(entity -> entity.getUser().getId().equals(userId));
+
+        return targetEntity.map(entity -> {
+            entity.setDone(dto.isDone()); // 변경 감지로 UPDATE (save 불필요)
+            log.debug("service에서 setDone 완료");
+            return TodoDeltaResponseDTO.builder()
+                    .todo(new TodoDetailResponseDTO(entity))
+                    .version(listChanged(userId))
+                    .build();
+        });
+    }
 
-        targetEntity.ifPresent(entity -> {
-            entity.setDone(dto.isDone());
+    /**
+     * 여러 할 일의 완료 여부를 UPDATE 한 번으로 변경
+     * 로그인한 회원의 할 일만 변경된다.
+     * @param dto - 변경할 할 일 ID 목록(또는 전체 여부)과 완료 여부
+     * @param userId - 로그인한 회원 ID
+     * @return - 실제로 변경된 할 일 개수와 변경이 반영된 목록 버전
+     * @throws IllegalArgumentException - 변경 대상이 지정되지 않은 경우
+     */
+    public TodoBulkResultResponseDTO markDone(TodoBulkDoneRequestDTO dto, String userId)
+            throws IllegalArgumentException {
+
+        int affected;
+        if (dto.isAll()) {
+            affected = todoRepository.updateDoneByUserId(userId, dto.isDone());
+        } else {
+            if (dto.getIds() == null || dto.getIds().isEmpty()) {
+                throw new IllegalArgumentException("변경할 할 일 ID를 전달해주세요.");
+            }
+            affected = todoRepository.updateDoneByUserIdAndTodoIds(
+                    userId, toIdSet(dto.getIds()), dto.isDone());
+        }
+
+        return TodoBulkResultResponseDTO.builder()
+                .affected(affected)
+                .version(affected > 0 ? listChanged(userId) : todoListVersion.current(userId))
+                .build();
+    }
+
+    // 중복을 제거한 ID 집합 (Set.copyOf는 null이 있으면 NPE를 던지므로 먼저 걸러낸다.)
+    private Set<String> toIdSet(List<String> ids) throws IllegalArgumentException {
+        if (ids.contains(null)) {
+            throw new IllegalArgumentException("ID 목록에 빈 값이 있습니다.");
+        }
+        return Set.copyOf(ids);
+    }
 
-            todoRepository.save(entity);
-            log.info("service에서 setDone 완료");
+    // 회원의 할 일 목록이 바뀌었음을 기록하고, 이 변경으로 올라간 목록 버전을 리턴
+    // 버전은 변경과 같은 트랜잭션에서 올려서 모든 서버에 커밋과 동시에 반영되게 하고,
+    // 이 서버의 캐시는 커밋된 뒤에 비운다. (커밋 전에 비우면 다른 요청이 옛 목록을 다시 캐시할 수 있음)
+    // 리턴한 버전은 이 트랜잭션이 올린 값이므로, 커밋 후에 버전을 다시 읽을 때와 달리
+    // 그 사이 다른 요청의 변경이 섞이지 않는다.
+    private String listChanged(String userId) {
+        String version = todoListVersion.bump(userId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                todoListCache.invalidate(userId);
+            }
         });
-        return retrieve(userId);
+        return version;
     }
 
 
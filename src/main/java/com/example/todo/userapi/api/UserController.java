@@ -1,28 +1,46 @@
 package com.example.todo.userapi.api;
 
+import com.example.todo.auth.LoginRateLimiter;
 import com.example.todo.auth.TokenUserInfo;
 import com.example.todo.exception.DuplicatedEmailException;
 import com.example.todo.exception.NoRegisteredArgumentsException;
+import com.example.todo.exception.TooManyRequestsException;
 import com.example.todo.userapi.dto.request.LoginRequestDTO;
+import com.example.todo.userapi.dto.request.TokenRefreshRequestDTO;
 import com.example.todo.userapi.dto.request.UserRequestSignUpDTO;
 import com.example.todo.userapi.dto.request.UserSignUpResponseDTO;
 import com.example.todo.userapi.dto.response.LoginResponseDTO;
+import com.example.todo.userapi.service.ProfileImageSize;
 import com.example.todo.userapi.service.UserService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.DigestUtils;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.util.FileCopyUtils;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
+import javax.servlet.http.HttpServletRequest;
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
 
 @RestController
 @Slf4j
@@ -31,6 +49,17 @@ import java.io.IOException;
 public class UserController {
     
     private final UserService userService;
+    private final LoginRateLimiter loginRateLimiter;
+    
+    // 브라우저가 프로필 사진을 다시 묻지 않고 쓰는 기간 (지나면 ETag로 확인)
+    @Value("${profile-image.cache-max-age:7d}")
+    private Duration profileMaxAge;
+    
+    // 원본 사진의 이미지 형식 (key: 저장소 파일명)
+    // 파일명이 같으면 내용도 같으므로 서버마다 파일명당 한 번만 파일을 읽어서 확인한다.
+    private final Cache<String, MediaType> profileContentTypes = Caffeine.newBuilder()
+       .maximumSize(10_000)
+       .build();
     
     //이메일 중복 확인 요청 처리
     // GET: /api/auth/check?email=zzzz@xxx.com
@@ -67,13 +96,12 @@ public class UserController {
         }
         
         try {
-            String uploadedFilePath = null;
             if (profileImg != null) {
                 log.info("attached file name: {}", profileImg.getOriginalFilename());
-                uploadedFilePath = userService.uploadProfileImage(profileImg);
             }
             
-            UserSignUpResponseDTO responseDTO = userService.create(dto, uploadedFilePath);
+            // 프로필 사진 업로드는 가입 처리 안에서 비밀번호 암호화와 동시에 진행
+            UserSignUpResponseDTO responseDTO = userService.create(dto, profileImg);
             return ResponseEntity.ok().body(responseDTO);
             
         } catch (NoRegisteredArgumentsException e) {
@@ -82,6 +110,11 @@ public class UserController {
         } catch (DuplicatedEmailException e) {
             log.warn("이메일이 중복되었습니다.");
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            log.warn("프로필 사진이 올바르지 않습니다. - {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (TooManyRequestsException e) {
+            return tooManyRequests(e);
         } catch (Exception e) {
             //파일 저장에서 문제 발생
             log.warn("기타 예외가 발생하였습니다.");
@@ -94,17 +127,56 @@ public class UserController {
     
     // 로그인 요청 처리
     @PostMapping("/signin")
-    public ResponseEntity<?> signIn(@RequestBody @Validated LoginRequestDTO dto) {
+    public ResponseEntity<?> signIn(@RequestBody @Validated LoginRequestDTO dto,
+                                    HttpServletRequest request) {
         
         try {
+            // 시도 횟수를 넘었으면 DB 조회, 비밀번호 검사 없이 바로 거절
+            loginRateLimiter.acquire(dto.getEmail(), request.getRemoteAddr());
+            
             LoginResponseDTO responseDTO = userService.authenticate(dto);
             return ResponseEntity.ok().body(responseDTO);
+        } catch (TooManyRequestsException e) {
+            return tooManyRequests(e);
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
     
+    // 액세스 토큰 재발급 요청 처리
+    // POST: /api/auth/refresh
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody @Validated TokenRefreshRequestDTO dto) {
+        
+        try {
+            LoginResponseDTO responseDTO = userService.refresh(dto.getRefreshToken());
+            return ResponseEntity.ok().body(responseDTO);
+        } catch (JwtException | NoRegisteredArgumentsException e) {
+            log.warn("토큰 재발급 실패: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
+        }
+    }
+    
+    // 로그아웃 요청 처리 (현재 토큰 폐기)
+    // POST: /api/auth/logout
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(
+       @AuthenticationPrincipal TokenUserInfo userInfo,
+       @RequestBody(required = false) TokenRefreshRequestDTO dto
+    ) {
+        userService.logout(userInfo, dto == null ? null : dto.getRefreshToken());
+        return ResponseEntity.noContent().build();
+    }
+    
+    // 요청이 너무 많을 때: 429 + 재시도 대기 시간
+    private ResponseEntity<?> tooManyRequests(TooManyRequestsException e) {
+        log.warn(e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+           .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+           .body(e.getMessage());
+    }
+    
     // 일반 회원을 프리미엄 회원으로 승격하는 요청 처리
     @PutMapping("/promote")
     // 권한 검사 (해당 권한이 아니라면 인가처리 거부 403 코드 리턴)
@@ -127,37 +199,57 @@ public class UserController {
     }
     
     // 프로필 사진 이미지 데이터를 클라이언트에게 응답 처리
-    // -> S3로 대체한 이후 이 메서드는 사용하지 않음.
+    // GET: /api/auth/load-profile?size=64
+    // 사진은 로컬 디스크 캐시(DiskObjectCache)에서 응답하므로 자주 보는 사진은 원격 GET이 없다.
+    // 파일을 byte[]로 읽지 않고 Resource로 넘겨서 작은 버퍼로 흘려보내고,
+    // Range 요청은 필요한 부분만(206), 바뀌지 않은 사진은 본문 없이(304) 응답한다.
     @GetMapping("/load-profile")
     public ResponseEntity<?> loadFile(
-       @AuthenticationPrincipal TokenUserInfo userInfo
+       @AuthenticationPrincipal TokenUserInfo userInfo,
+       @RequestParam(required = false) Integer size,
+       WebRequest request
     ){
-        log.info("/api/auth/load-profile - GET! user : {}", userInfo.getEmail());
+        log.info("/api/auth/load-profile - GET! user : {}, size: {}", userInfo.getEmail(), size);
         
         try {
-            // 클라이언트가 요청한 프로필 사진을 응답해야 함
-            // 1. 프로필 사진의 경로를 얻어야 함
-            String filePath = userService.findProfilePath(userInfo.getUserId());
+            // 1. 요청한 크기의 프로필 사진 파일명 찾기
+            Optional<String> key = userService.findProfileKey(userInfo.getUserId(), size);
+            if(key.isEmpty()){  //사진이 없으면 404
+                return ResponseEntity.notFound().build();
+            }
             
-            // 2. 얻어낸 파일 경로를 통해 실제 파일 데이터 로드하기.
-            File profileFile = new File(filePath); //경로 문제
+            // 2. 저장소 파일명으로 ETag를 만들고, 바뀌지 않았으면 파일을 찾지 않고 304 응답
+            // 파일명에는 UUID가 붙어 있고 같은 이름으로 덮어쓰지 않으므로 파일명이 같으면 내용도 같다.
+            // (디스크 캐시 파일의 수정 시간은 서버마다, 캐시에서 지워졌다 다시 받을 때마다 달라지므로 쓰지 않음)
+            String eTag = "\"" + DigestUtils.md5DigestAsHex(key.get().getBytes(StandardCharsets.UTF_8)) + "\"";
             
-            if(!profileFile.exists()){  //파일이 없으면 404 뚜ㅏ유가,
-                return ResponseEntity.notFound().build();
+            if(request.checkNotModified(eTag)){
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                   .eTag(eTag)
+                   .header(HttpHeaders.CACHE_CONTROL, profileCacheControl())
+                   .header(HttpHeaders.VARY, HttpHeaders.AUTHORIZATION)
+                   .build();
             }
             
-            //해당 경로에 저장된 파일을 바이트 계열로 작렬화 해서 리턴
-            byte[] fileData = FileCopyUtils.copyToByteArray(profileFile);
+            Optional<Resource> found = userService.findProfileFile(key.get());
+            if(found.isEmpty()){  //저장소에 파일이 없으면 404
+                return ResponseEntity.notFound().build();
+            }
+            Resource profileFile = found.get();
             
-            //3. 응답 헤더에 컨텐츠 타입을 설정.
-            HttpHeaders headers = new HttpHeaders();
-            MediaType contentType = findExtensionAndGetMediaType(filePath);
+            //3. 응답 헤더에 컨텐츠 타입을 설정. (요청마다 파일을 읽지 않음)
+            MediaType contentType = profileMediaType(key.get(), profileFile);
             if(contentType == null){
                 return ResponseEntity.internalServerError().body("이미지가 아닌 파일이 발견되었습니다.");
             }
-            headers.setContentType(contentType);
             
-            return ResponseEntity.ok().headers(headers).body(fileData);
+            return ResponseEntity.ok()
+               .contentType(contentType)
+               .eTag(eTag)
+               .header(HttpHeaders.CACHE_CONTROL, profileCacheControl())
+               .header(HttpHeaders.VARY, HttpHeaders.AUTHORIZATION)
+               .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+               .body(profileFile);
             
         } catch (Exception e) {
             e.printStackTrace();
@@ -166,36 +258,60 @@ public class UserController {
     }
     
     
-    // 사용자가 올린 파일의 속성을 파악하는 메서드
-    private MediaType findExtensionAndGetMediaType(String filePath) {
+    // 같은 파일명의 내용은 바뀌지 않으므로 기간 안에는 다시 확인하지 않도록 immutable을 붙인다.
+    // (스프링 5의 CacheControl에는 immutable()이 없어서 직접 붙임)
+    // 주소는 회원마다 같으므로 Vary: Authorization으로 다른 회원의 사진이 재사용되지 않게 한다.
+    private String profileCacheControl() {
+        return CacheControl.maxAge(profileMaxAge).cachePrivate().getHeaderValue() + ", immutable";
+    }
+    
+    
+    // 프로필 사진의 이미지 형식
+    // 사본은 항상 JPEG로 만들어지므로 파일을 읽지 않고,
+    // 원본은 클라이언트가 보낸 파일 확장자를 믿을 수 없으므로 처음 한 번만 내용으로 확인해서 기억해 둔다.
+    private MediaType profileMediaType(String key, Resource file) throws IOException {
+        if (ProfileImageSize.isThumbnailKey(key)) {
+            return MediaType.IMAGE_JPEG;
+        }
+        MediaType cached = profileContentTypes.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        MediaType sniffed = sniffMediaType(file);
+        if (sniffed != null) {
+            profileContentTypes.put(key, sniffed);
+        }
+        return sniffed;
+    }
+    
+    
+    // 파일 앞부분(매직 넘버)을 읽어서 이미지 형식을 파악하는 메서드
+    private MediaType sniffMediaType(Resource file) throws IOException {
         
-        // 파일 경로에서 확장자 추출하기
-        // C:/todo_upload/fjelfjelhfnwuqroxn_img.jpg
-        String ext = filePath.substring(filePath.lastIndexOf(".") + 1);
+        String contentType;
+        try (InputStream in = new BufferedInputStream(file.getInputStream())) {
+            contentType = URLConnection.guessContentTypeFromStream(in);
+        }
         
-        switch (ext.toUpperCase()){
-            case "JPG": case "JPEG":
-                return MediaType.IMAGE_JPEG;
-            case "PNG":
-                return MediaType.IMAGE_PNG;
-            case "GIF":
-                return MediaType.IMAGE_GIF;
-            default:
-                return null;
+        if(contentType == null || !contentType.startsWith("image/")){
+            return null;
         }
+        return MediaType.parseMediaType(contentType);
     }
     
     
     //프로필 사진을 주는 메서드. (로그인과 함께 주는게 편함!)
+    // GET: /api/auth/load-s3?size=64  (size: 표시할 크기(px), 없으면 원본)
     @GetMapping("/load-s3")
     public ResponseEntity<?> loadS3(
-       @AuthenticationPrincipal TokenUserInfo userInfo //인증된 토큰 받아오기!
+       @AuthenticationPrincipal TokenUserInfo userInfo, //인증된 토큰 받아오기!
+       @RequestParam(required = false) Integer size
         ) {
         
-        log.info("/api/auth/load-3 GET - user: {}", userInfo);
+        log.info("/api/auth/load-3 GET - user: {}, size: {}", userInfo, size);
         
         try {
-            String profilePath = userService.findProfilePath(userInfo.getUserId()); //링크가 돌아옴!
+            String profilePath = userService.findProfileUrl(userInfo.getUserId(), size); //링크가 돌아옴!
             return ResponseEntity.ok().body(profilePath);
         } catch (Exception e){
             e.printStackTrace();
@@ -0,0 +1,17 @@
+package com.example.todo.userapi.dto.request;
+
+import lombok.*;
+
+import javax.validation.constraints.NotBlank;
+
+// 액세스 토큰 재발급, 로그아웃 요청 시 전달하는 리프레시 토큰
+@Getter
+@ToString @EqualsAndHashCode
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class TokenRefreshRequestDTO {
+   
+   @NotBlank
+   private String refreshToken;
+   
+}
@@ -19,15 +19,17 @@ public class LoginResponseDTO {
    @JsonFormat(pattern = "yyyy년 MM월 dd일")
    private LocalDate joinDate;
    
-   private String token; // 인증 토큰
+   private String token; // 인증 토큰 (수명이 짧은 액세스 토큰)
+   private String refreshToken; // 액세스 토큰 재발급용 토큰
    private String role; // 권한
    
    
-   public LoginResponseDTO(User user, String token) {
+   public LoginResponseDTO(User user, String token, String refreshToken) {
       this.email = user.getEmail();
       this.userName = user.getUserName();
       this.joinDate = LocalDate.from(user.getJoinDate());
       this.token = token;
+      this.refreshToken = refreshToken;
       this.role = String.valueOf(user.getRole());
    }
 }
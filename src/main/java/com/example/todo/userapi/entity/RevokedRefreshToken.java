@@ -0,0 +1,28 @@
+package com.example.todo.userapi.entity;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+// 사용이 끝난 리프레시 토큰 (재발급에 한 번 사용했거나, 로그아웃으로 폐기한 토큰)
+// 재발급 요청 때만 DB에서 확인하므로 메모리에는 올리지 않는다.
+@Getter @Setter
+@ToString @EqualsAndHashCode(of = "tokenId")
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "tbl_revoked_refresh_token", indexes = {
+        @Index(name = "idx_revoked_refresh_token_expires_at", columnList = "expires_at")
+})
+public class RevokedRefreshToken {
+
+    @Id
+    @Column(name = "token_id")
+    private String tokenId; // 토큰의 jti
+
+    // 토큰 원래 만료 시간 (이 시간이 지나면 기록도 필요 없음)
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+}
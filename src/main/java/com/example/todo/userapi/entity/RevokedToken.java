@@ -0,0 +1,34 @@
+package com.example.todo.userapi.entity;
+
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+// 폐기된 액세스 토큰 (로그아웃, 권한 변경)
+// 서버는 이 테이블을 주기적으로 읽어서 메모리에 두고 요청마다 DB를 조회하지 않는다.
+@Getter @Setter
+@ToString @EqualsAndHashCode(of = "tokenId")
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+@Entity
+// 새로 폐기된 토큰만 다시 읽기 위한 revoked_at 인덱스
+@Table(name = "tbl_revoked_token", indexes = {
+        @Index(name = "idx_revoked_token_revoked_at", columnList = "revoked_at")
+})
+public class RevokedToken {
+
+    @Id
+    @Column(name = "token_id")
+    private String tokenId; // 토큰의 jti
+
+    // 토큰 원래 만료 시간 (이 시간이 지나면 기록도 필요 없음)
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt;
+
+}
@@ -41,6 +41,18 @@ public class User {
     
     private String profileImg;
     
+    // 작성한 할 일 개수 (일정 개수 제한 검사용, 할 일 등록/삭제 시 함께 갱신)
+    // null이면 컬럼이 추가되기 전에 가입한 회원이라 아직 세지 않은 것 (TodoQuota가 서버 시작 시 한 번 채움)
+    @Builder.Default
+    private Integer todoCount = 0;
+    
+    // 할 일 목록 버전 (할 일을 등록/수정/삭제하는 트랜잭션에서 1씩 올림)
+    // 모든 서버가 이 값으로 목록 ETag와 목록 캐시를 검사한다.
+    // 엔터티를 저장할 때 조회 시점의 값으로 덮어쓰지 않도록 UPDATE 쿼리로만 변경한다.
+    @Column(nullable = false, updatable = false)
+    @Builder.Default
+    private long todoListVersion = 0;
+    
 
     
     
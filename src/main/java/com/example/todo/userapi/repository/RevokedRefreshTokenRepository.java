@@ -0,0 +1,31 @@
+package com.example.todo.userapi.repository;
+
+import com.example.todo.userapi.entity.RevokedRefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+
+public interface RevokedRefreshTokenRepository
+    extends JpaRepository<RevokedRefreshToken, String> {
+
+    //폐기 기록 추가 (이미 같은 토큰이 있으면 기본키 중복으로 DataIntegrityViolationException)
+    // save()는 기존 행이 있으면 UPDATE로 바뀌므로 INSERT를 직접 실행한다.
+    // INSERT INTO tbl_revoked_refresh_token (token_id, expires_at) VALUES (?, ?)
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO tbl_revoked_refresh_token (token_id, expires_at)" +
+                   " VALUES (:tokenId, :expiresAt)", nativeQuery = true)
+    int insert(@Param("tokenId") String tokenId,
+               @Param("expiresAt") LocalDateTime expiresAt);
+
+    //만료 시간이 지난 기록 정리
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevokedRefreshToken r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+}
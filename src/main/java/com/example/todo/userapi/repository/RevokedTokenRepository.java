@@ -0,0 +1,28 @@
+package com.example.todo.userapi.repository;
+
+import com.example.todo.userapi.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RevokedTokenRepository
+    extends JpaRepository<RevokedToken, String> {
+
+    //아직 만료되지 않은 폐기 토큰 전체 (서버 시작 시 한 번)
+    List<RevokedToken> findByExpiresAtAfter(LocalDateTime now);
+
+    //특정 시간 이후에 폐기된 토큰 (주기적으로 새로 추가된 것만 읽기)
+    List<RevokedToken> findByRevokedAtGreaterThanEqual(LocalDateTime since);
+
+    //만료 시간이 지난 기록 정리
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+}
@@ -1,11 +1,20 @@
 package com.example.todo.userapi.repository;
 
 
+import com.example.todo.userapi.entity.Role;
 import com.example.todo.userapi.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import javax.transaction.Transactional;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 public interface UserRepository
     extends JpaRepository<User, String> {
@@ -18,6 +27,72 @@ public interface UserRepository
     //이메일 중복 체크
 //    @Query("SELECT COUNT(*) FROM User u WHERE u.email = ?1")
     boolean existsByEmail(String email);
-
+    
+    //가입된 모든 이메일을 한 행씩 스트림으로 조회 (이메일 블룸 필터 초기화용)
+    // 트랜잭션 안에서 사용하고 반드시 닫아야 한다.
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT u.email FROM User u")
+    Stream<String> streamAllEmails();
+    
+    
+    //비밀번호를 다시 암호화한 값으로 교체 (그 사이 비밀번호가 바뀌었다면 교체하지 않음)
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newPassword" +
+           " WHERE u.id = :userId AND u.password = :oldPassword")
+    int updatePassword(@Param("userId") String userId,
+                       @Param("oldPassword") String oldPassword,
+                       @Param("newPassword") String newPassword);
+    
+    //회원 등급만 변경
+    // 엔터티를 save()하면 모든 컬럼을 조회 시점의 값으로 덮어써서
+    // 그 사이 바뀐 todo_count가 되돌아가므로 role 컬럼만 UPDATE 한다.
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.role = :role WHERE u.id = :userId")
+    int updateRole(@Param("userId") String userId,
+                   @Param("role") Role role);
+    
+    //할 일 개수를 제한 이내에서만 늘린다. (늘어나면 1, 제한을 넘으면 0 리턴)
+    // 조건부 UPDATE가 회원 행을 잠그므로 동시에 등록해도 제한을 넘을 수 없다.
+    // UPDATE tbl_user SET todo_count = todo_count + ? WHERE user_id = ? AND todo_count + ? <= ?
+    @Modifying
+    @Query("UPDATE User u SET u.todoCount = u.todoCount + :amount" +
+           " WHERE u.id = :userId AND u.todoCount + :amount <= :limit")
+    int increaseTodoCount(@Param("userId") String userId,
+                          @Param("amount") int amount,
+                          @Param("limit") int limit);
+    
+    //할 일 개수를 줄인다. (0 밑으로는 내려가지 않음, 아직 세지 않은 회원은 그대로 둠)
+    @Modifying
+    @Query("UPDATE User u SET u.todoCount =" +
+           " CASE WHEN u.todoCount > :amount THEN u.todoCount - :amount ELSE 0 END" +
+           " WHERE u.id = :userId AND u.todoCount IS NOT NULL")
+    int decreaseTodoCount(@Param("userId") String userId,
+                          @Param("amount") int amount);
+    
+    //할 일 목록 버전 조회
+    @Query("SELECT u.todoListVersion FROM User u WHERE u.id = :userId")
+    Optional<Long> findTodoListVersion(@Param("userId") String userId);
+    
+    //할 일 목록 버전을 1 올린다. (회원 행을 잠그므로 같은 회원의 변경은 커밋 순서대로 버전을 받는다)
+    @Modifying
+    @Query("UPDATE User u SET u.todoListVersion = u.todoListVersion + 1 WHERE u.id = :userId")
+    int increaseTodoListVersion(@Param("userId") String userId);
+    
+    //아직 세지 않은(todo_count가 null인) 회원의 할 일 개수를 실제 할 일 테이블 기준으로 계산
+    // 이미 센 회원은 건드리지 않으므로 여러 번 실행해도 결과가 같다.
+    @Modifying
+    @Query("UPDATE User u SET u.todoCount =" +
+           " (SELECT COUNT(t) FROM Todo t WHERE t.user = u)" +
+           " WHERE u.todoCount IS NULL")
+    int countUncountedTodoCounts();
+    
+    //한 회원만 (아직 세지 않았다면) 할 일 개수를 계산
+    @Modifying
+    @Query("UPDATE User u SET u.todoCount =" +
+           " (SELECT COUNT(t) FROM Todo t WHERE t.user = u)" +
+           " WHERE u.id = :userId AND u.todoCount IS NULL")
+    int countUncountedTodoCount(@Param("userId") String userId);
 
 }
@@ -0,0 +1,127 @@
+package com.example.todo.userapi.service;
+
+import com.example.todo.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// 비밀번호 암호화(BCrypt)를 전용 스레드 풀에서 실행하는 객체
+// BCrypt는 일부러 느리게(수십~수백ms) 만든 연산이라 요청 스레드에서 바로 돌리면
+// 로그인이 몰릴 때 할 일 API까지 느려진다.
+// 동시에 실행되는 개수와 대기열 크기를 제한하고, 대기열이 가득 차면 바로 거절(429)한다.
+// 지표: password.hash (op=encode|matches), password.hash.queue.size
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PasswordHasher {
+
+    private final PasswordEncoder encoder;
+    private final MeterRegistry meterRegistry;
+
+    // 동시에 암호화를 실행할 스레드 수 (기본: CPU 코어 수)
+    @Value("${security.password-hashing.threads:0}")
+    private int threads;
+
+    // 실행을 기다릴 수 있는 최대 작업 수
+    @Value("${security.password-hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    // 거절할 때 클라이언트에게 알려줄 재시도 대기 시간 (초)
+    @Value("${security.password-hashing.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
+    private ThreadPoolExecutor executor;
+    private Timer encodeTimer;
+    private Timer matchesTimer;
+
+    @PostConstruct
+    private void initialize() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + sequence.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("password.hash.queue.size", executor, e -> e.getQueue().size())
+                .description("실행을 기다리는 비밀번호 암호화 작업 수")
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("password.hash").tag("op", "encode").register(meterRegistry);
+        this.matchesTimer = Timer.builder("password.hash").tag("op", "matches").register(meterRegistry);
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 비밀번호 암호화를 전용 스레드 풀에 맡긴다.
+     * @param rawPassword - 평문 비밀번호
+     * @return - 암호화된 비밀번호를 돌려줄 future
+     * @throws PasswordHashingBusyException - 대기열이 가득 찬 경우
+     */
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(encodeTimer, () -> encoder.encode(rawPassword));
+    }
+
+    /**
+     * 비밀번호 일치 여부 검사를 전용 스레드 풀에 맡긴다.
+     * @throws PasswordHashingBusyException - 대기열이 가득 찬 경우
+     */
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    // 저장된 비밀번호가 현재 설정된 강도보다 약하게 암호화되었는지 여부
+    public boolean needsRehash(String encodedPassword) {
+        return encoder.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * future의 결과를 기다려서 리턴 (작업 중 발생한 예외는 원래 예외로 다시 던진다)
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Timer timer, Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(() -> timer.record(task), executor);
+        } catch (RejectedExecutionException e) {
+            log.warn("비밀번호 암호화 대기열이 가득 찼습니다. 대기 작업 수: {}", executor.getQueue().size());
+            throw new PasswordHashingBusyException(
+                    "요청이 많아 잠시 후 다시 시도해주세요.", retryAfterSeconds);
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.example.todo.userapi.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+// 프로필 사진의 작은 사본(썸네일)을 만드는 객체
+// 사본은 비율을 유지한 채 긴 쪽을 지정한 크기로 줄이고 JPEG로 다시 압축한다.
+@Component
+public class ProfileImageResizer {
+
+    // JPEG 압축 품질 (0.0 ~ 1.0)
+    @Value("${profile-upload.thumbnail-quality:0.85}")
+    private float quality;
+
+    // 디코딩을 허용하는 최대 픽셀 수 (작은 파일로 거대한 이미지를 만드는 공격 방지)
+    @Value("${profile-upload.max-pixels:25000000}")
+    private long maxPixels;
+
+    /**
+     * 원본 이미지를 한 번만 디코딩한다.
+     * @param source - 원본 이미지 파일
+     * @return - 디코딩된 이미지
+     * @throws IllegalArgumentException - 읽을 수 없거나(CMYK JPEG처럼 지원하지 않는 형식 포함) 너무 큰 이미지인 경우
+     */
+    public BufferedImage read(Path source) throws IOException, IllegalArgumentException {
+        try (InputStream file = Files.newInputStream(source);
+             ImageInputStream in = ImageIO.createImageInputStream(file)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new IllegalArgumentException("이미지를 읽을 수 없습니다.");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                // 픽셀 데이터를 읽기 전에 크기부터 확인한다.
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    throw new IllegalArgumentException("이미지 해상도가 너무 큽니다.");
+                }
+                return reader.read(0);
+            } catch (IIOException e) {
+                // 손상된 파일이나 ImageIO가 디코딩하지 못하는 형식(CMYK JPEG 등)은 잘못된 이미지로 처리한다.
+                throw new IllegalArgumentException("이미지를 읽을 수 없습니다.", e);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 지정한 크기의 사본을 JPEG 파일로 만든다.
+     * @param image - 원본 이미지
+     * @param size - 만들 크기
+     * @param target - 사본을 저장할 파일
+     */
+    public void writeThumbnail(BufferedImage image, ProfileImageSize size, Path target) throws IOException {
+        BufferedImage resized = resize(image, size.getMaxPixels());
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        try (OutputStream file = Files.newOutputStream(target);
+             ImageOutputStream out = ImageIO.createImageOutputStream(file)) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(resized, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    // 긴 쪽이 maxSize가 되도록 줄인다. (원본이 더 작으면 키우지 않음)
+    // 한 번에 크게 줄이면 화질이 깨지므로 절반씩 나눠서 줄인다.
+    private BufferedImage resize(BufferedImage image, int maxSize) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double scale = Math.min(1.0, (double) maxSize / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage current = image;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            current = draw(current, width, height);
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    // JPEG에는 투명도가 없으므로 흰 배경 위에 그린다.
+    private BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = result.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return result;
+    }
+
+}
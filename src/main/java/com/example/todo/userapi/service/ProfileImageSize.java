@@ -0,0 +1,56 @@
+package com.example.todo.userapi.service;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+// 저장해 두는 프로필 사진 크기
+// 원본과 함께 작은 크기의 사본을 만들어 두고, 클라이언트가 표시할 크기에 맞는 것을 내려준다.
+public enum ProfileImageSize {
+
+    SMALL(64),
+    MEDIUM(256),
+    ORIGINAL(0);
+
+    // 사본 파일명 앞뒤에 붙는 값 (사본은 항상 JPEG)
+    private static final String THUMBNAIL_PREFIX = "thumb/";
+    private static final String THUMBNAIL_SUFFIX = ".jpg";
+
+    // 가로, 세로 중 긴 쪽의 최대 픽셀 수 (0이면 원본)
+    private final int maxPixels;
+
+    ProfileImageSize(int maxPixels) {
+        this.maxPixels = maxPixels;
+    }
+
+    public int getMaxPixels() {
+        return maxPixels;
+    }
+
+    /**
+     * 이 크기의 사진이 저장된 파일명
+     * @param originalKey - 원본 파일명
+     * @return - 원본이면 그대로, 사본이면 thumb/{크기}/{원본 파일명}.jpg
+     */
+    public String key(String originalKey) {
+        if (this == ORIGINAL) return originalKey;
+        return THUMBNAIL_PREFIX + maxPixels + "/" + originalKey + THUMBNAIL_SUFFIX;
+    }
+
+    // key()로 만든 사본 파일명인지 확인 (사본이면 내용을 읽지 않아도 JPEG임을 알 수 있음)
+    public static boolean isThumbnailKey(String key) {
+        return key.startsWith(THUMBNAIL_PREFIX) && key.endsWith(THUMBNAIL_SUFFIX);
+    }
+
+    /**
+     * 요청한 크기 이상인 것 중 가장 작은 크기 (요청한 크기보다 큰 사본이 없으면 원본)
+     * @param requestedPixels - 클라이언트가 표시할 크기 (null이면 원본)
+     */
+    public static ProfileImageSize atLeast(Integer requestedPixels) {
+        if (requestedPixels == null) return ORIGINAL;
+        return Arrays.stream(values())
+                .filter(size -> size != ORIGINAL && size.maxPixels >= requestedPixels)
+                .min(Comparator.comparingInt(ProfileImageSize::getMaxPixels))
+                .orElse(ORIGINAL);
+    }
+
+}
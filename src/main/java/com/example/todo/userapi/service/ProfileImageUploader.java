@@ -0,0 +1,207 @@
+package com.example.todo.userapi.service;
+
+import com.example.todo.storage.DiskObjectCache;
+import com.example.todo.storage.ObjectStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+// 프로필 사진을 저장소에 올리는 객체
+// 회원 가입 시 업로드를 비밀번호 암호화와 동시에 진행하기 위해 사용한다.
+// 업로드 파일을 임시 파일로 옮기고 형식을 검사하고 작은 사본(ProfileImageSize)을 만드는 작업은 전용 스레드 풀에서,
+// 저장소 전송은 저장소의 비동기 클라이언트에서 진행되므로 어느 스레드도 전송을 기다리며 붙잡혀 있지 않다.
+// 대기열이 가득 차면 요청 스레드에서 직접 준비한다. (느려질 뿐 실패하지는 않음)
+// 파일은 byte[]로 복사하지 않고 디스크에서 읽으면서 전송하므로 동시 업로드가 늘어도 힙 사용량이 사진 크기에 비례해 늘지 않는다.
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ProfileImageUploader {
+
+    // 허용하는 이미지 형식 (파일 확장자가 아니라 실제 내용으로 판단)
+    private static final Set<String> ALLOWED_CONTENT_TYPES = Set.of("image/jpeg", "image/png", "image/gif");
+
+    private final ObjectStore objectStore;
+    private final ProfileImageResizer resizer;
+    private final DiskObjectCache diskObjectCache;
+
+    // 프로필 사진 최대 크기
+    @Value("${profile-upload.max-size:5MB}")
+    private DataSize maxSize;
+
+    // 동시에 업로드를 준비할 수 있는 개수
+    @Value("${profile-upload.threads:4}")
+    private int threads;
+
+    // 준비를 기다릴 수 있는 최대 업로드 수
+    @Value("${profile-upload.queue-capacity:32}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    private void initialize() {
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "profile-upload-" + sequence.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 프로필 사진과 작은 사본들을 저장소에 올린다.
+     * 업로드된 파일은 요청이 끝나면 지워지므로 요청 안에서 결과를 기다려야 한다.
+     * @param file - 업로드된 파일
+     * @param fileName - 저장소에 저장할 원본 파일명 (사본은 ProfileImageSize.key()로 정해짐)
+     * @return - 모두 올라가면 원본 파일명을 돌려줄 future
+     *           (이미지가 아니면 IllegalArgumentException으로 실패)
+     * @throws IllegalArgumentException - 최대 크기를 넘는 경우
+     */
+    public CompletableFuture<String> upload(MultipartFile file, String fileName)
+            throws IllegalArgumentException {
+        if (file.getSize() > maxSize.toBytes()) {
+            throw new IllegalArgumentException(
+                    "프로필 사진은 " + maxSize.toKilobytes() + "KB까지 올릴 수 있습니다.");
+        }
+
+        return CompletableFuture.supplyAsync(() -> stageAndPut(file, fileName), executor)
+                .thenCompose(Function.identity())
+                .thenApply(v -> fileName);
+    }
+
+    // 업로드 파일을 임시 파일로 옮기고, 형식 검사와 디코딩과 사본 만들기를 모두 마친 뒤에 전송을 시작한다.
+    // 검사에 실패하면 아무것도 올라가지 않으므로 전송 중인 임시 파일을 지우거나 저장소에 남는 파일이 생기지 않는다.
+    // 임시 파일은 모든 전송이 끝나면 지운다.
+    private CompletableFuture<Void> stageAndPut(MultipartFile file, String fileName) {
+        List<Path> temps = new ArrayList<>();
+        List<StagedFile> staged = new ArrayList<>();
+        try {
+            Path original = Files.createTempFile("profile-", ".upload");
+            temps.add(original);
+            file.transferTo(original);
+            String contentType = sniffContentType(original);
+            staged.add(new StagedFile(ProfileImageSize.ORIGINAL.key(fileName), original, contentType));
+
+            // 원본은 한 번만 디코딩하고 크기별 사본을 만든다.
+            BufferedImage image = resizer.read(original);
+            for (ProfileImageSize size : ProfileImageSize.values()) {
+                if (size == ProfileImageSize.ORIGINAL) continue;
+                Path thumbnail = Files.createTempFile("profile-" + size.getMaxPixels() + "-", ".jpg");
+                temps.add(thumbnail);
+                resizer.writeThumbnail(image, size, thumbnail);
+                staged.add(new StagedFile(size.key(fileName), thumbnail, "image/jpeg"));
+            }
+        } catch (IOException e) {
+            temps.forEach(this::deleteQuietly);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            temps.forEach(this::deleteQuietly);
+            throw e;
+        }
+
+        // 여기부터는 예외를 던지지 않는다. (전송이 시작된 뒤에 임시 파일을 지우지 않도록)
+        // allOf는 하나가 실패해도 나머지가 모두 끝난 뒤에 완료되므로 discard()의 삭제가 전송보다 먼저 실행되지 않는다.
+        List<CompletableFuture<Void>> puts = new ArrayList<>();
+        for (StagedFile f : staged) {
+            puts.add(put(f));
+        }
+        return CompletableFuture.allOf(puts.toArray(new CompletableFuture[0]))
+                .whenComplete((v, e) -> temps.forEach(this::deleteQuietly));
+    }
+
+    private CompletableFuture<Void> put(StagedFile f) {
+        CompletableFuture<Void> put;
+        try {
+            put = objectStore.put(f.key, f.path, f.contentType);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        diskObjectCache.put(f.key, f.path);
+        return put;
+    }
+
+    // 전송을 기다리는 임시 파일
+    @RequiredArgsConstructor
+    private static class StagedFile {
+        private final String key;
+        private final Path path;
+        private final String contentType;
+    }
+
+    // 파일 앞부분(매직 넘버)을 읽어서 형식을 판단한다.
+    private String sniffContentType(Path path) throws IOException {
+        String contentType;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            contentType = URLConnection.guessContentTypeFromStream(in);
+        }
+        if (contentType == null || !ALLOWED_CONTENT_TYPES.contains(contentType)) {
+            throw new IllegalArgumentException("jpg, png, gif 이미지만 올릴 수 있습니다.");
+        }
+        return contentType;
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) return;
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("임시 파일 삭제 실패 - {}", path);
+        }
+    }
+
+    /**
+     * 업로드가 끝나면 업로드한 원본과 사본을 지운다. (가입이 실패해서 필요 없어진 경우)
+     * 업로드가 실패했으면 올라간 것만 지워지고 나머지는 무시된다.
+     * @param uploaded - upload()가 리턴한 future
+     * @param fileName - 저장소에 저장한 원본 파일명
+     */
+    public void discard(CompletableFuture<String> uploaded, String fileName) {
+        uploaded.handle((key, error) -> null)
+                .thenRun(() -> {
+                    for (ProfileImageSize size : ProfileImageSize.values()) {
+                        String key = size.key(fileName);
+                        diskObjectCache.remove(key);
+                        objectStore.delete(key).whenComplete((v, e) -> {
+                            if (e != null) {
+                                log.warn("업로드한 프로필 사진 삭제 실패 - {}, 원인: {}", key, e.getMessage());
+                            }
+                        });
+                    }
+                    log.info("가입 실패로 업로드한 프로필 사진을 삭제했습니다. - {}", fileName);
+                });
+    }
+
+}
@@ -0,0 +1,163 @@
+package com.example.todo.userapi.service;
+
+import com.example.todo.userapi.repository.UserRepository;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.transaction.Transactional;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+// 가입된 이메일의 블룸 필터
+// 필터에 없다고 나오면 가입되지 않은 이메일이 확실하므로 DB를 조회하지 않고,
+// 있을 수도 있다고 나올 때만 DB로 확인한다. (이메일 입력 중 매 키 입력마다 중복 검사가 오기 때문)
+// 서버 시작 시 회원 테이블을 한 번 읽어서 채우고, 그 전까지는 항상 DB로 확인한다.
+// 다른 서버에서 가입한 이메일은 이 필터에 들어오지 않으므로 주기적으로 회원 테이블을 다시 읽어서 새 필터로 교체한다.
+// 그래도 잠깐은 놓칠 수 있으므로 이메일 입력 중의 중복 확인(/check)에만 쓰고, 가입 처리는 DB로 확인한다.
+// 지표: email.filter.checks (result=negative|positive|warming), email.filter.false.positives,
+//       email.filter.expected.fpp, email.filter.memory (bytes), email.filter.elements
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class RegisteredEmailFilter {
+
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    // 예상 회원 수 (넘으면 오탐률이 올라가므로 email.filter.expected.fpp 지표를 보고 늘린다)
+    @Value("${security.email-filter.expected-insertions:1000000}")
+    private long expectedInsertions;
+
+    // 목표 오탐률 (있다고 나왔지만 실제로는 없는 비율)
+    @Value("${security.email-filter.fpp:0.01}")
+    private double fpp;
+
+    private volatile BloomFilter<String> filter;
+    private volatile boolean ready = false;
+
+    // 다시 읽는 중인 새 필터 (읽는 동안 가입한 이메일도 넣어서 교체할 때 빠지지 않게 한다)
+    private volatile BloomFilter<String> rebuilding;
+
+    private Counter negatives;
+    private Counter positives;
+    private Counter warming;
+    private Counter falsePositives;
+
+    @PostConstruct
+    private void initialize() {
+        this.filter = newFilter();
+
+        this.negatives = checkCounter("negative");
+        this.positives = checkCounter("positive");
+        this.warming = checkCounter("warming");
+        this.falsePositives = Counter.builder("email.filter.false.positives")
+                .description("필터에는 있다고 나왔지만 DB에는 없던 이메일 수")
+                .register(meterRegistry);
+
+        Gauge.builder("email.filter.expected.fpp", this, f -> f.filter.expectedFpp())
+                .description("현재 들어있는 개수 기준 예상 오탐률")
+                .register(meterRegistry);
+        Gauge.builder("email.filter.elements", this, f -> f.filter.approximateElementCount())
+                .register(meterRegistry);
+        Gauge.builder("email.filter.memory", this, f -> bitSize(expectedInsertions, fpp) / 8.0)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    private Counter checkCounter(String result) {
+        return Counter.builder("email.filter.checks").tag("result", result).register(meterRegistry);
+    }
+
+    private BloomFilter<String> newFilter() {
+        return BloomFilter.create(
+                Funnels.stringFunnel(StandardCharsets.UTF_8), expectedInsertions, fpp);
+    }
+
+    // 서버 시작 시 가입된 이메일로 필터를 채운다.
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void warmUp() {
+        long count = rebuild();
+        ready = true;
+        log.info("이메일 블룸 필터 준비 완료 - 회원 수: {}, 예상 오탐률: {}", count, filter.expectedFpp());
+    }
+
+    // 회원 테이블을 다시 읽어서 필터를 교체한다. (기본 10분마다, 단위: ms)
+    // 다른 서버에서 가입한 이메일이 반영되고, 탈퇴한 회원의 이메일은 빠진다.
+    @Scheduled(initialDelayString = "${security.email-filter.resync-interval:600000}",
+               fixedDelayString = "${security.email-filter.resync-interval:600000}")
+    @Transactional
+    public void resync() {
+        if (!ready) return;
+        long count = rebuild();
+        log.debug("이메일 블룸 필터 갱신 - 회원 수: {}, 예상 오탐률: {}", count, filter.expectedFpp());
+    }
+
+    // 새 필터를 채운 뒤 교체한다. 채우는 중에 가입한 회원은 put()으로 새 필터에도 들어간다.
+    private synchronized long rebuild() {
+        BloomFilter<String> next = newFilter();
+        rebuilding = next;
+        long count = 0;
+        try (Stream<String> emails = userRepository.streamAllEmails()) {
+            for (String email : (Iterable<String>) emails::iterator) {
+                next.put(normalize(email));
+                count++;
+            }
+            filter = next;
+        } finally {
+            rebuilding = null;
+        }
+        return count;
+    }
+
+    /**
+     * 가입된 이메일일 가능성이 있는지 확인 (DB 조회 없음)
+     * @param email - 확인할 이메일
+     * @return - false면 가입되지 않은 것이 확실함, true면 DB로 확인해야 함
+     */
+    public boolean mightContain(String email) {
+        if (!ready) {
+            warming.increment();
+            return true;
+        }
+        boolean result = filter.mightContain(normalize(email));
+        (result ? positives : negatives).increment();
+        return result;
+    }
+
+    // mightContain()이 true였지만 DB에는 없었을 때 호출 (실제 오탐률 집계용)
+    public void recordFalsePositive() {
+        if (ready) falsePositives.increment();
+    }
+
+    // 새로 가입한 이메일을 필터에 추가
+    public void put(String email) {
+        String normalized = normalize(email);
+        BloomFilter<String> next = rebuilding;
+        if (next != null) next.put(normalized);
+        filter.put(normalized);
+    }
+
+    // MySQL 기본 정렬 규칙은 대소문자를 구분하지 않으므로 필터도 소문자로 맞춘다.
+    private String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // 블룸 필터 비트 수: m = -n * ln(p) / (ln 2)^2
+    private static long bitSize(long n, double p) {
+        return (long) (-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+    }
+
+}
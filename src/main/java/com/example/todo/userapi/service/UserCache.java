@@ -0,0 +1,97 @@
+package com.example.todo.userapi.service;
+
+import com.example.todo.userapi.entity.Role;
+import com.example.todo.userapi.entity.User;
+import com.example.todo.userapi.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+// 회원 정보를 메모리에 보관하는 캐시
+// 할 일, 프로필 요청마다 회원을 PK로 조회하던 SELECT를 없애기 위해 사용한다.
+// 엔터티를 그대로 두면 여러 요청이 같은 객체를 공유하게 되므로 변경할 수 없는 사본(CachedUser)만 보관한다.
+// 회원 정보가 바뀌면 invalidate()로 지우고, 다른 서버에서 바뀐 정보는 ttl이 지나면 반영된다.
+// 지표: cache.gets(result=hit|miss), cache.evictions, cache.size (name=user)
+@Component
+@RequiredArgsConstructor
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${user.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${user.cache.ttl:5m}")
+    private Duration ttl;
+
+    private Cache<String, CachedUser> cache;
+
+    @PostConstruct
+    private void initialize(){
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "user");
+    }
+
+    /**
+     * 캐시된 회원 정보를 리턴하고, 없으면 DB에서 읽어서 캐시에 저장
+     * @param userId - 회원 ID
+     * @return - 회원 정보 (없는 회원이면 빈 값, 없는 회원은 캐시하지 않음)
+     */
+    public Optional<CachedUser> find(String userId){
+        CachedUser cached = cache.getIfPresent(userId);
+        if(cached != null){
+            return Optional.of(cached);
+        }
+
+        Optional<CachedUser> loaded = userRepository.findById(userId).map(CachedUser::new);
+        loaded.ifPresent(user -> cache.put(userId, user));
+        return loaded;
+    }
+
+    /**
+     * find()와 같지만 없는 회원이면 예외 발생
+     * @throws NoSuchElementException - 없는 회원인 경우
+     */
+    public CachedUser get(String userId) throws NoSuchElementException {
+        return find(userId).orElseThrow();
+    }
+
+    // 회원 정보가 바뀌었을 때 캐시에서 지운다.
+    public void invalidate(String userId){
+        cache.invalidate(userId);
+    }
+
+    // 캐시에 보관하는 회원 정보 사본 (비밀번호는 보관하지 않음)
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class CachedUser {
+        private final String id;
+        private final String email;
+        private final String userName;
+        private final Role role;
+        private final String profileImg;
+
+        private CachedUser(User user){
+            this(user.getId(), user.getEmail(), user.getUserName(), user.getRole(), user.getProfileImg());
+        }
+    }
+
+}
@@ -1,10 +1,13 @@
 package com.example.todo.userapi.service;
 
 import com.example.todo.auth.TokenProvider;
+import com.example.todo.auth.TokenRevocationList;
 import com.example.todo.auth.TokenUserInfo;
-import com.example.todo.aws.S3Service;
 import com.example.todo.exception.DuplicatedEmailException;
 import com.example.todo.exception.NoRegisteredArgumentsException;
+import com.example.todo.exception.PasswordHashingBusyException;
+import com.example.todo.storage.DiskObjectCache;
+import com.example.todo.storage.ObjectStore;
 import com.example.todo.userapi.dto.request.LoginRequestDTO;
 import com.example.todo.userapi.dto.request.UserSignUpResponseDTO;
 import com.example.todo.userapi.dto.request.UserRequestSignUpDTO;
@@ -12,16 +15,18 @@ import com.example.todo.userapi.dto.response.LoginResponseDTO;
 import com.example.todo.userapi.entity.Role;
 import com.example.todo.userapi.entity.User;
 import com.example.todo.userapi.repository.UserRepository;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
-import java.io.IOException;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 
 @Service
@@ -30,9 +35,14 @@ import java.util.UUID;
 public class UserService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder encoder;
+    private final PasswordHasher passwordHasher;
     private final TokenProvider tokenProvider;
-    private final S3Service s3Service;
+    private final TokenRevocationList tokenRevocationList;
+    private final RegisteredEmailFilter registeredEmailFilter;
+    private final ProfileImageUploader profileImageUploader;
+    private final ObjectStore objectStore;
+    private final DiskObjectCache diskObjectCache;
+    private final UserCache userCache;
     
     // C:/~~~ 경로 가져오는 역할이라 더 이상 필요하지 않음.
 //    @Value("${upload.path}")
@@ -40,34 +50,79 @@ public class UserService {
     
     
     //회원 가입 처리
+    // 중복 검사를 먼저 해서 빠르게 실패하고,
+    // 서로 관계가 없는 프로필 사진 업로드와 비밀번호 암호화는 동시에 실행한다.
+    // (가입 시간이 두 작업의 합이 아니라 더 느린 쪽의 시간이 됨)
     public UserSignUpResponseDTO create(
-        final UserRequestSignUpDTO dto, final String uploadedFilePath)
+        final UserRequestSignUpDTO dto, final MultipartFile profileImg)
         throws RuntimeException{
         
-        String email = dto.getEmail();
         if(dto == null){
             throw  new NoRegisteredArgumentsException("가입 정보가 없습니다.");
         }
-        if(isDuplicate(email)){
+        // 블룸 필터는 다른 서버에서 가입한 이메일을 잠깐 놓칠 수 있으므로 가입 처리는 DB로 확인한다.
+        String email = dto.getEmail();
+        if(userRepository.existsByEmail(email)){
             log.warn("이메일이 중복되었습니다. - {}", email);
             throw new DuplicatedEmailException("중복된 이메일입니다.");
         }
         
-        //패스워드 인코딩
-        String encoded = encoder.encode(dto.getPassword());
-        dto.setPassword(encoded);
+        //프로필 사진 업로드 시작 (전용 스레드 풀)
+        String fileName = null;
+        CompletableFuture<String> uploaded = CompletableFuture.completedFuture(null);
+        if(profileImg != null){
+            //파일명을 유니크하게 변경
+            fileName = UUID.randomUUID() + "_" + profileImg.getOriginalFilename();
+            uploaded = profileImageUploader.upload(profileImg, fileName);
+        }
+        
+        try {
+            //패스워드 인코딩 (전용 스레드 풀에서 실행, 업로드와 동시에 진행)
+            CompletableFuture<String> encoded = passwordHasher.encode(dto.getPassword());
+            
+            dto.setPassword(PasswordHasher.await(encoded));
+            String uploadedFilePath = PasswordHasher.await(uploaded); // 저장소의 원본 파일명
 
-        //유저 인티티로 변환
-        User user = dto.toEntity(uploadedFilePath);
-        User saved = userRepository.save(user);
-        log.info("회원가입 정상 수행됨! saved user = {}", saved);
+            //유저 인티티로 변환
+            User user = dto.toEntity(uploadedFilePath);
+            User saved = save(user);
+            registeredEmailFilter.put(saved.getEmail());
+            log.info("회원가입 정상 수행됨! saved user = {}", saved);
 
-        return new UserSignUpResponseDTO(saved);
+            return new UserSignUpResponseDTO(saved);
+            
+        } catch (RuntimeException e) {
+            // 가입에 실패하면 올려둔 사진은 필요 없으므로 지운다.
+            if(fileName != null){
+                profileImageUploader.discard(uploaded, fileName);
+            }
+            throw e;
+        }
     }
 
 
+    // 중복 검사 이후 같은 이메일로 동시에 가입하면 unique 제약 조건에 걸리므로 중복 이메일로 처리한다.
+    private User save(User user) throws DuplicatedEmailException {
+        try {
+            return userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("이메일이 중복되었습니다. - {}", user.getEmail());
+            throw new DuplicatedEmailException("중복된 이메일입니다.");
+        }
+    }
+
+
+    // 이메일 입력 중 중복 확인 (/check) - 블룸 필터로 빠르게 걸러낸다.
     public boolean isDuplicate(String email) {
-        return userRepository.existsByEmail(email);
+        // 블룸 필터에 없으면 가입되지 않은 이메일이 확실하므로 DB를 조회하지 않는다.
+        if (!registeredEmailFilter.mightContain(email)) {
+            return false;
+        }
+        boolean duplicate = userRepository.existsByEmail(email);
+        if (!duplicate) {
+            registeredEmailFilter.recordFalsePositive();
+        }
+        return duplicate;
     }
     
     
@@ -82,18 +137,82 @@ public class UserService {
         String rawPassword = dto.getPassword(); //입력 비번
         String encodedPassword = user.getPassword(); //DB에 저장된 비번
         
-        if(!encoder.matches(rawPassword, encodedPassword)){
+        if(!PasswordHasher.await(passwordHasher.matches(rawPassword, encodedPassword))){
             throw new RuntimeException("비밀번호가 틀렸습니다.");
         }
         
+        // BCrypt 강도 설정이 바뀌었으면 로그인 응답을 늦추지 않도록 백그라운드에서 다시 암호화
+        if(passwordHasher.needsRehash(encodedPassword)){
+            rehashInBackground(user.getId(), rawPassword, encodedPassword);
+        }
+        
         log.info("{}님 로그인 성공!", user.getUserName());
         
         // 로그인 성공 후에 클라이언트에게 뭘 리턴할 것인가?
         // -> JWT를 클라이언트에게 발급해 줘야 함.
         String token = tokenProvider.createToken(user);
+        String refreshToken = tokenProvider.createRefreshToken(user);
+        
+        return new LoginResponseDTO(user, token, refreshToken);
+        
+    }
+    
+    /**
+     * 리프레시 토큰으로 액세스 토큰을 재발급
+     * 회원 정보를 다시 조회하므로 그 사이 바뀐 권한이 새 토큰에 반영된다.
+     * 사용한 리프레시 토큰은 폐기하고 새 리프레시 토큰을 함께 발급한다.
+     * @param refreshToken - 로그인 때 발급받은 리프레시 토큰
+     * @return - 새 토큰이 담긴 로그인 응답
+     * @throws JwtException - 위조, 만료되었거나 이미 사용(폐기)된 리프레시 토큰인 경우
+     */
+    public LoginResponseDTO refresh(String refreshToken) throws JwtException {
+        TokenUserInfo refreshInfo = tokenProvider.verifyRefreshToken(refreshToken);
         
-        return new LoginResponseDTO(user, token);
+        // 새 토큰을 만들기 전에 폐기부터 한다.
+        // 같은 토큰으로 동시에 요청해도 폐기(INSERT)에 성공한 한 요청만 재발급받는다.
+        if (!tokenRevocationList.revokeRefreshToken(refreshInfo.getTokenId(), refreshInfo.getExpiresAt())) {
+            throw new JwtException("이미 사용되었거나 폐기된 리프레시 토큰입니다.");
+        }
+        
+        User user = userRepository.findById(refreshInfo.getUserId())
+           .orElseThrow(() -> new NoRegisteredArgumentsException("회원 조회에 실패!"));
+        
+        return new LoginResponseDTO(user,
+           tokenProvider.createToken(user), tokenProvider.createRefreshToken(user));
+    }
+    
+    /**
+     * 로그아웃: 현재 액세스 토큰과 (전달된 경우) 리프레시 토큰을 폐기
+     * @param userInfo - 로그인한 회원 정보
+     * @param refreshToken - 함께 폐기할 리프레시 토큰 (없으면 null)
+     */
+    public void logout(TokenUserInfo userInfo, String refreshToken) {
+        tokenRevocationList.revoke(userInfo.getTokenId(), userInfo.getExpiresAt());
         
+        if (refreshToken == null) return;
+        try {
+            TokenUserInfo refreshInfo = tokenProvider.verifyRefreshToken(refreshToken);
+            if (refreshInfo.getUserId().equals(userInfo.getUserId())) {
+                tokenRevocationList.revokeRefreshToken(refreshInfo.getTokenId(), refreshInfo.getExpiresAt());
+            }
+        } catch (JwtException e) {
+            // 이미 쓸 수 없는 토큰이므로 폐기할 필요 없음
+            log.debug("로그아웃 - 유효하지 않은 리프레시 토큰: {}", e.getMessage());
+        }
+    }
+    
+    private void rehashInBackground(String userId, String rawPassword, String oldEncoded) {
+        try {
+            passwordHasher.encode(rawPassword)
+               .thenAccept(newEncoded -> userRepository.updatePassword(userId, oldEncoded, newEncoded))
+               .exceptionally(e -> {
+                   log.warn("비밀번호 재암호화 실패 - userId: {}, 원인: {}", userId, e.getMessage());
+                   return null;
+               });
+        } catch (PasswordHashingBusyException e) {
+            // 바쁠 때는 건너뛰고 다음 로그인 때 다시 시도한다.
+            log.debug("비밀번호 재암호화 건너뜀 - userId: {}", userId);
+        }
     }
     
     //프리미엄으로 등급 업
@@ -107,46 +226,65 @@ public class UserService {
             throw new IllegalAccessException("일반 회원만 등급 상승을 신청할 수 있습니다.");
         }
         
-        //등급 변경
+        //등급 변경 (role 컬럼만 변경, 동시에 바뀌는 할 일 개수를 덮어쓰지 않도록 save 하지 않음)
+        if (userRepository.updateRole(foundUser.getId(), Role.PREMIUM) == 0) {
+            throw new NoRegisteredArgumentsException("회원 조회에 실패!");
+        }
         foundUser.changeRole(Role.PREMIUM);
-        User saved = userRepository.save(foundUser);
+        userCache.invalidate(foundUser.getId());
         
-        // 토큰 재발급
-        String token = tokenProvider.createToken(saved);
+        // 이전 권한이 담긴 토큰은 폐기하고 재발급
+        tokenRevocationList.revoke(userInfo.getTokenId(), userInfo.getExpiresAt());
+        String token = tokenProvider.createToken(foundUser);
+        String refreshToken = tokenProvider.createRefreshToken(foundUser);
         
-        return new LoginResponseDTO(saved, token);
+        return new LoginResponseDTO(foundUser, token, refreshToken);
+    }
+    
+    public String findProfilePath(String userId) {
+        // 프로필 요청마다 오는 조회라 DB 대신 회원 캐시에서 읽는다.
+        UserCache.CachedUser user = userCache.get(userId);
+        
+//        return uploadRootPath+"/"+user.getProfileImg();
+        return user.getProfileImg();
     }
     
     /**
-     * 업로드된 파일을 서버에 저장하고 저장 경로를 리턴
-     * @param originalFile - 업로드 된 파일의 정보
-     * @return 실제로 저장된 이미지 경로
+     * 클라이언트가 표시할 크기에 맞는 프로필 사진 url
+     * @param userId - 회원 ID
+     * @param size - 표시할 크기 (px, null이면 원본)
+     * @return - 요청한 크기 이상인 사본 중 가장 작은 것의 url (사진이 없으면 null)
      */
-    public String uploadProfileImage(MultipartFile originalFile) throws IOException {
+    public String findProfileUrl(String userId, Integer size) {
+        String profileImg = findProfilePath(userId);
+        if (profileImg == null) return null;
         
-//        // 루트 디렉토리가 존재하는 지 확인 후 존재하지 않으면 생성한다. -> 파일 필요 X.
-//        File rootDir = new File(uploadRootPath);
-//        if(!rootDir.exists()) rootDir.mkdir();
+        // 사본 기능 이전에 가입한 회원은 원본 url이 그대로 저장되어 있다.
+        if (profileImg.startsWith("http")) return profileImg;
         
-        //파일명을 유니크하게 변경
-        String uniqueFileName = UUID.randomUUID()+"_"+originalFile.getOriginalFilename();
-        
-//        //파일을 저장 -> 디바이스에 저장할 필요가 없어짐.
-//        File uploadFile = new File(uploadRootPath + "/" + uniqueFileName);
-//        originalFile.transferTo(uploadFile); //.transferTo 업로드 파일 저장
-        
-        // 파일을 S3 버킷에 저장
-        String uploadUrl
-           = s3Service.uploadToS3Bucket(originalFile.getBytes(), uniqueFileName); //문자열 URL 리턴
-        
-        return uploadUrl; //저장하기 위해 파일명 리턴 -> URL 리턴
+        return objectStore.url(ProfileImageSize.atLeast(size).key(profileImg));
     }
     
-    
-    public String findProfilePath(String userId) {
-        User user = userRepository.findById(userId).orElseThrow();
+    /**
+     * 서버가 직접 응답할 프로필 사진의 저장소 파일명
+     * @param userId - 회원 ID
+     * @param size - 표시할 크기 (px, null이면 원본)
+     * @return - 요청한 크기 이상인 사본 중 가장 작은 것의 파일명 (서버에 사진이 없으면 빈 값)
+     */
+    public Optional<String> findProfileKey(String userId, Integer size) {
+        String profileImg = findProfilePath(userId);
+        if (profileImg == null || profileImg.startsWith("http")) return Optional.empty();
         
-//        return uploadRootPath+"/"+user.getProfileImg();
-        return user.getProfileImg();
+        return Optional.of(ProfileImageSize.atLeast(size).key(profileImg));
+    }
+    
+    /**
+     * 서버가 직접 응답할 프로필 사진 파일
+     * 원격 저장소의 사진은 로컬 디스크 캐시에서 찾고, 없으면 받아와서 캐시에 넣는다.
+     * @param key - findProfileKey()로 찾은 저장소 파일명
+     * @return - 로컬 디스크의 사진 파일 (저장소에 없으면 빈 값)
+     */
+    public Optional<Resource> findProfileFile(String key) {
+        return diskObjectCache.findResource(key);
     }
 }
@@ -0,0 +1,41 @@
+package com.example.todo.auth;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    @DisplayName("용량만큼 연속으로 사용하면 그 다음 요청은 거절되어야 한다.")
+    void capacityTest() {
+        //given
+        TokenBucket bucket = new TokenBucket(3, 1.0, 0);
+
+        //when
+        //then
+        assertEquals(0, bucket.tryConsume(0));
+        assertEquals(0, bucket.tryConsume(0));
+        assertEquals(0, bucket.tryConsume(0));
+        assertTrue(bucket.tryConsume(0) > 0);
+    }
+
+    @Test
+    @DisplayName("시간이 지나면 초당 채워지는 개수만큼 다시 사용할 수 있어야 한다.")
+    void refillTest() {
+        //given
+        TokenBucket bucket = new TokenBucket(1, 0.5, 0); // 2초에 1개
+        bucket.tryConsume(0);
+
+        //when
+        long wait = bucket.tryConsume(SECOND);
+
+        //then
+        assertEquals(SECOND, wait, 10);           // 1초 더 기다려야 함
+        assertEquals(0, bucket.tryConsume(2 * SECOND + 10));
+    }
+
+}
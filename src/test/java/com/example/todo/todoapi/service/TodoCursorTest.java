@@ -0,0 +1,39 @@
+package com.example.todo.todoapi.service;
+
+import com.example.todo.todoapi.entity.Todo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TodoCursorTest {
+
+    @Test
+    @DisplayName("인코딩한 커서를 디코딩하면 등록시간과 ID가 그대로 복원되어야 한다.")
+    void encodeDecodeTest() {
+        //given
+        Todo todo = Todo.builder()
+                .todoId("402880e5892f7a6c01892f7b1c2e0000")
+                .title("장보기")
+                .createDate(LocalDateTime.of(2023, 7, 5, 12, 30, 15, 123456000))
+                .build();
+
+        //when
+        String encoded = TodoCursor.of(todo).encode();
+        TodoCursor decoded = TodoCursor.decode(encoded);
+
+        //then
+        assertEquals(todo.getCreateDate(), decoded.getCreateDate());
+        assertEquals(todo.getTodoId(), decoded.getTodoId());
+    }
+
+    @Test
+    @DisplayName("형식이 잘못된 커서를 디코딩하면 IllegalArgumentException이 발생해야 한다.")
+    void invalidCursorTest() {
+        assertThrows(IllegalArgumentException.class, () -> TodoCursor.decode("!!!"));
+        assertThrows(IllegalArgumentException.class, () -> TodoCursor.decode("bm8tZGVsaW1pdGVy"));
+    }
+
+}